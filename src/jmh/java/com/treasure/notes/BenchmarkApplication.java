@@ -0,0 +1,61 @@
+package com.treasure.notes;
+
+import com.treasure.notes.domain.User;
+import com.treasure.notes.security.AuthenticatedUser;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Boots the application for the benchmarks of repositories and services.
+ * <p>
+ * The benchmarks run on the test classpath, so the application uses the test configuration: an in-memory H2
+ * database created by Liquibase, with the {@code user} and {@code admin} accounts. The statements are not recorded as
+ * in the tests, that list would grow for as long as the benchmark runs.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {}
+
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(NotesServiceApp.class)
+            // Passed as arguments, the default properties would be overridden by the configuration files
+            .run(
+                "--server.port=0",
+                "--spring.devtools.restart.enabled=false",
+                "--logging.level.ROOT=WARN",
+                "--logging.level.com.treasure.notes=WARN",
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + PassThroughStatementInspector.class.getName()
+            );
+    }
+
+    /**
+     * Authenticate the given user for all the threads of the benchmark.
+     */
+    public static void authenticate(User user) {
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        List<GrantedAuthority> authorities = user
+            .getAuthorities()
+            .stream()
+            .map(authority -> new SimpleGrantedAuthority(authority.getName()))
+            .collect(Collectors.toList());
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getLogin(), "", authorities);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, "", authorities));
+    }
+
+    public static class PassThroughStatementInspector implements StatementInspector {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String inspect(String sql) {
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.treasure.notes.aop.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.treasure.notes.BenchmarkApplication;
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.domain.User;
+import com.treasure.notes.service.NotesQueryService;
+import com.treasure.notes.service.criteria.NotesCriteria;
+import com.treasure.notes.service.dto.NotesDTO;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Cost of a query returning 20 notes of 3000 characters through the {@link LoggingAspect}, in each of its modes:
+ * <ul>
+ *     <li>{@code noProxy}: the aspect is not created, as when the logger of the application is off;</li>
+ *     <li>{@code debugDisabled}: the service logger is at the info level;</li>
+ *     <li>{@code whole}: every call is logged with its whole arguments and result;</li>
+ *     <li>{@code cut}: every call is logged, the arguments and result cut to 200 characters;</li>
+ *     <li>{@code sampled}: 1% of the calls are logged, cut to 200 characters.</li>
+ * </ul>
+ * The logs are formatted then written to a stream discarding them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingAspectBenchmark {
+
+    @Param({ "noProxy", "debugDisabled", "whole", "cut", "sampled" })
+    public String mode;
+
+    private final Logger serviceLogger = (Logger) LoggerFactory.getLogger(NotesQueryService.class);
+
+    private OutputStreamAppender<ILoggingEvent> appender;
+
+    private NotesQueryService notesQueryService;
+
+    private NotesCriteria criteria;
+
+    @Setup
+    public void setup() {
+        User user = new User();
+        user.setId(1L);
+        user.setLogin("benchmark-user");
+        BenchmarkApplication.authenticate(user);
+        List<Tuple> rows = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            Object[] columns = { id, "x".repeat(3000), new Date(), 0L, user.getId(), user.getLogin() };
+            rows.add(proxy(Tuple.class, (proxy, method, args) -> columns[(Integer) args[0]]));
+        }
+        // The current user is read from the security context, and only the projection of the notes is queried
+        NotesQueryService target = new NotesQueryService(null, null, null, proxy(EntityManager.class, new StubHandler(rows)));
+        criteria = new NotesCriteria();
+        criteria.content().setContains("x");
+
+        LoggerContext loggerContext = serviceLogger.getLoggerContext();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d %-5level [%thread] %logger{36} : %msg%n");
+        encoder.start();
+        appender = new OutputStreamAppender<>();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        serviceLogger.addAppender(appender);
+        serviceLogger.setAdditive(false);
+        serviceLogger.setLevel("noProxy".equals(mode) ? Level.OFF : "debugDisabled".equals(mode) ? Level.INFO : Level.DEBUG);
+
+        if ("noProxy".equals(mode)) {
+            notesQueryService = target;
+            return;
+        }
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getLogging().setMaxArgumentLength("whole".equals(mode) ? 0 : 200);
+        applicationProperties.getLogging().setSampleRate("sampled".equals(mode) ? 0.01 : 1.0);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new LoggingAspect(new MockEnvironment(), applicationProperties));
+        notesQueryService = proxyFactory.getProxy();
+    }
+
+    @TearDown
+    public void tearDown() {
+        serviceLogger.detachAppender(appender);
+        appender.stop();
+        serviceLogger.setAdditive(true);
+        serviceLogger.setLevel(null);
+    }
+
+    @Benchmark
+    public List<NotesDTO> findByCriteria() {
+        return notesQueryService.findByCriteria(criteria);
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    /**
+     * Answers the criteria API with stubs of the returned interfaces, and the queries with the given rows.
+     */
+    private static class StubHandler implements InvocationHandler {
+
+        private final List<Tuple> rows;
+
+        StubHandler(List<Tuple> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (method.getDeclaringClass() == Object.class) {
+                return "equals".equals(method.getName()) ? proxy == args[0] : "hashCode".equals(method.getName())
+                    ? System.identityHashCode(proxy)
+                    : "stub";
+            }
+            if ("getResultList".equals(method.getName())) {
+                return rows;
+            }
+            Class<?> returnType = method.getReturnType();
+            return returnType.isInterface() ? proxy(returnType, this) : returnType == boolean.class ? false : null;
+        }
+    }
+}
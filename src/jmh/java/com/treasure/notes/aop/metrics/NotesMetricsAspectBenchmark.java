@@ -0,0 +1,91 @@
+package com.treasure.notes.aop.metrics;
+
+import com.treasure.notes.BenchmarkApplication;
+import com.treasure.notes.domain.User;
+import com.treasure.notes.repository.NotesRepository;
+import com.treasure.notes.service.NotesQueryService;
+import com.treasure.notes.service.criteria.NotesCriteria;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+/**
+ * Overhead of the {@link NotesMetricsAspect} on a query, compared with the same query on the service itself.
+ * <p>
+ * The repository counts nothing so that the query costs little, and the timers are configured as in the application.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotesMetricsAspectBenchmark {
+
+    private NotesQueryService notesQueryService;
+
+    private NotesQueryService timedNotesQueryService;
+
+    private NotesCriteria criteria;
+
+    @Setup
+    public void setup() {
+        NotesRepository notesRepository = (NotesRepository) Proxy.newProxyInstance(
+            NotesRepository.class.getClassLoader(),
+            new Class<?>[] { NotesRepository.class },
+            (proxy, method, args) -> 0L
+        );
+        // The counting is the only query of the benchmark, and the current user is read from the security context
+        notesQueryService = new NotesQueryService(notesRepository, null, null, null);
+        User user = new User();
+        user.setId(1L);
+        user.setLogin("benchmark-user");
+        BenchmarkApplication.authenticate(user);
+
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        meterRegistry
+            .config()
+            .meterFilter(
+                new MeterFilter() {
+                    @Override
+                    public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                        return DistributionStatisticConfig
+                            .builder()
+                            .percentilesHistogram(true)
+                            .percentiles(0, 0.5, 0.75, 0.95, 0.99, 1.0)
+                            .serviceLevelObjectives(
+                                Duration.ofMillis(10).toNanos(),
+                                Duration.ofMillis(100).toNanos(),
+                                Duration.ofSeconds(1).toNanos()
+                            )
+                            .build()
+                            .merge(config);
+                    }
+                }
+            );
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(notesQueryService);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new NotesMetricsAspect(meterRegistry));
+        timedNotesQueryService = proxyFactory.getProxy();
+
+        criteria = new NotesCriteria();
+        criteria.content().setContains("milk");
+    }
+
+    @Benchmark
+    public long countByCriteria() {
+        return notesQueryService.countByCriteria(criteria);
+    }
+
+    @Benchmark
+    public long countByCriteriaTimed() {
+        return timedNotesQueryService.countByCriteria(criteria);
+    }
+}
@@ -0,0 +1,69 @@
+package com.treasure.notes.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.treasure.notes.service.dto.NotesDTO;
+import com.treasure.notes.service.dto.UserDTO;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Cost of serialising a page of notes, with an {@link ObjectMapper} set up as the application does: the modules of
+ * {@link JacksonConfiguration} and the defaults of Spring Boot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotesJsonBenchmark {
+
+    @Param({ "20", "100" })
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private List<NotesDTO> page;
+
+    @Setup
+    public void setup() {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        objectMapper =
+            Jackson2ObjectMapperBuilder
+                .json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .modules(
+                    jacksonConfiguration.javaTimeModule(),
+                    jacksonConfiguration.jdk8TimeModule(),
+                    jacksonConfiguration.hibernate5Module(),
+                    jacksonConfiguration.problemModule(),
+                    jacksonConfiguration.constraintViolationProblemModule()
+                )
+                .build();
+
+        UserDTO user = new UserDTO();
+        user.setId(1L);
+        user.setLogin("benchmark-user");
+        page = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            NotesDTO notesDTO = new NotesDTO();
+            notesDTO.setId((long) i);
+            notesDTO.setContent("Remember the milk, the eggs and the bread " + i);
+            notesDTO.setCreatedDate(new Date());
+            notesDTO.setVersion(0L);
+            notesDTO.setUser(user);
+            page.add(notesDTO);
+        }
+    }
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
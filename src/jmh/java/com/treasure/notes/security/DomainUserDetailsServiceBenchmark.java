@@ -0,0 +1,54 @@
+package com.treasure.notes.security;
+
+import com.treasure.notes.BenchmarkApplication;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Cost of looking up the user of a login, on the in-memory H2 database: from the cache of the users logging in, and
+ * with the user and its authorities read from the database, as before that cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DomainUserDetailsServiceBenchmark {
+
+    private static final String LOGIN = "user";
+
+    private ConfigurableApplicationContext context;
+
+    private DomainUserDetailsService domainUserDetailsService;
+
+    private Cache userDetailsCache;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start();
+        domainUserDetailsService = context.getBean(DomainUserDetailsService.class);
+        CacheManager cacheManager = context.getBean(CacheManager.class);
+        userDetailsCache = cacheManager.getCache(DomainUserDetailsService.USER_DETAILS_CACHE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsernameCached() {
+        return domainUserDetailsService.loadUserByUsername(LOGIN);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsernameFromDatabase() {
+        userDetailsCache.evict(LOGIN);
+        return domainUserDetailsService.loadUserByUsername(LOGIN);
+    }
+}
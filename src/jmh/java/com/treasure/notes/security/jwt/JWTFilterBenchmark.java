@@ -0,0 +1,103 @@
+package com.treasure.notes.security.jwt;
+
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.security.AuthoritiesConstants;
+import com.treasure.notes.security.AuthorityRegistryTestUtil;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Cost per request of {@link JWTFilter} for a client reusing the same token.
+ * <p>
+ * {@code legacyFilter} is the former filter logic ({@code validateToken} then {@code getAuthentication}, so two parses),
+ * {@code filterWithoutCache} parses once, and {@code filterWithCache} only verifies the token on the first request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JWTFilterBenchmark {
+
+    private static final String BASE64_SECRET =
+        "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+
+    private TokenProvider cachedTokenProvider;
+
+    private JWTFilter cachedFilter;
+
+    private JWTFilter uncachedFilter;
+
+    private MockHttpServletRequest request;
+
+    private String jwt;
+
+    @Setup
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(BASE64_SECRET);
+
+        cachedTokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            AuthorityRegistryTestUtil.authorityRegistry()
+        );
+        ApplicationProperties uncachedProperties = new ApplicationProperties();
+        uncachedProperties.getSecurity().getAuthenticationCache().setEnabled(false);
+        TokenProvider uncachedTokenProvider = new TokenProvider(
+            jHipsterProperties,
+            uncachedProperties,
+            AuthorityRegistryTestUtil.authorityRegistry()
+        );
+
+        cachedFilter = new JWTFilter(cachedTokenProvider);
+        uncachedFilter = new JWTFilter(uncachedTokenProvider);
+
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+            "benchmark-user",
+            "benchmark-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        jwt = cachedTokenProvider.createToken(authentication, false);
+        request = new MockHttpServletRequest();
+        request.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
+        request.setRequestURI("/api/notes");
+    }
+
+    @Benchmark
+    public void legacyFilter(Blackhole blackhole) {
+        SecurityContextHolder.clearContext();
+        if (cachedTokenProvider.validateToken(jwt)) {
+            Authentication authentication = cachedTokenProvider.getAuthentication(jwt);
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Benchmark
+    public void filterWithoutCache(Blackhole blackhole) throws IOException, ServletException {
+        SecurityContextHolder.clearContext();
+        uncachedFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Benchmark
+    public void filterWithCache(Blackhole blackhole) throws IOException, ServletException {
+        SecurityContextHolder.clearContext();
+        cachedFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
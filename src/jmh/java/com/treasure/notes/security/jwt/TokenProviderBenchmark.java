@@ -0,0 +1,75 @@
+package com.treasure.notes.security.jwt;
+
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.security.AuthenticatedUser;
+import com.treasure.notes.security.AuthoritiesConstants;
+import com.treasure.notes.security.AuthorityRegistryTestUtil;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Cost of issuing a JWT, and of reading the authentication of a JWT with and without the cache of verified tokens.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenProviderBenchmark {
+
+    private static final String BASE64_SECRET =
+        "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+
+    private TokenProvider cachedTokenProvider;
+
+    private TokenProvider uncachedTokenProvider;
+
+    private Authentication authentication;
+
+    private String jwt;
+
+    @Setup
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(BASE64_SECRET);
+
+        cachedTokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            AuthorityRegistryTestUtil.authorityRegistry()
+        );
+        ApplicationProperties uncachedProperties = new ApplicationProperties();
+        uncachedProperties.getSecurity().getAuthenticationCache().setEnabled(false);
+        uncachedTokenProvider = new TokenProvider(jHipsterProperties, uncachedProperties, AuthorityRegistryTestUtil.authorityRegistry());
+
+        List<GrantedAuthority> authorities = List.of(
+            new SimpleGrantedAuthority(AuthoritiesConstants.USER),
+            new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN)
+        );
+        AuthenticatedUser principal = new AuthenticatedUser(1L, "benchmark-user", "", authorities);
+        authentication = new UsernamePasswordAuthenticationToken(principal, "benchmark-password", authorities);
+        jwt = cachedTokenProvider.createToken(authentication, false);
+    }
+
+    @Benchmark
+    public String createToken() {
+        return cachedTokenProvider.createToken(authentication, false);
+    }
+
+    @Benchmark
+    public Authentication getAuthenticationWithoutCache() {
+        return uncachedTokenProvider.getAuthentication(jwt);
+    }
+
+    @Benchmark
+    public Authentication getAuthenticationWithCache() {
+        return cachedTokenProvider.getAuthentication(jwt);
+    }
+}
@@ -0,0 +1,97 @@
+package com.treasure.notes.service;
+
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.domain.User;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Cost of rendering the activation email of a new user, as during a burst of registrations: by the template engine
+ * with and without its cache of parsed templates, the latter as in development, and from the rendered fragments of
+ * the {@link MailTemplateRenderer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MailTemplateRendererBenchmark {
+
+    private static final String TEMPLATE = "mail/activationEmail";
+
+    private static final int USERS = 1024;
+
+    private MailTemplateRenderer uncachedRenderer;
+
+    private MailTemplateRenderer parseCachedRenderer;
+
+    private MailTemplateRenderer cachedRenderer;
+
+    private User[] users;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setBaseUrl("http://127.0.0.1:8080");
+        ApplicationProperties uncachedProperties = new ApplicationProperties();
+        uncachedProperties.getMail().setTemplateCache(false);
+
+        uncachedRenderer = new MailTemplateRenderer(templateEngine(false), jHipsterProperties, uncachedProperties);
+        parseCachedRenderer = new MailTemplateRenderer(templateEngine(true), jHipsterProperties, uncachedProperties);
+        cachedRenderer = new MailTemplateRenderer(templateEngine(true), jHipsterProperties, new ApplicationProperties());
+
+        users = new User[USERS];
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setLogin("benchmark-user-" + i);
+            user.setActivationKey("activation-key-" + i);
+            users[i] = user;
+        }
+    }
+
+    private static SpringTemplateEngine templateEngine(boolean cacheable) {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        templateResolver.setCacheable(cacheable);
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding(StandardCharsets.UTF_8.name());
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        return templateEngine;
+    }
+
+    private User nextUser() {
+        next = (next + 1) % USERS;
+        return users[next];
+    }
+
+    @Benchmark
+    public String renderWithoutCache() {
+        return uncachedRenderer.render(TEMPLATE, Locale.ENGLISH, nextUser());
+    }
+
+    @Benchmark
+    public String renderWithParsedTemplateCache() {
+        return parseCachedRenderer.render(TEMPLATE, Locale.ENGLISH, nextUser());
+    }
+
+    @Benchmark
+    public String renderWithRenderedTemplateCache() {
+        return cachedRenderer.render(TEMPLATE, Locale.ENGLISH, nextUser());
+    }
+}
@@ -0,0 +1,90 @@
+package com.treasure.notes.service;
+
+import com.treasure.notes.BenchmarkApplication;
+import com.treasure.notes.domain.Notes;
+import com.treasure.notes.domain.User;
+import com.treasure.notes.repository.NotesRepository;
+import com.treasure.notes.repository.UserRepository;
+import com.treasure.notes.service.criteria.NotesCriteria;
+import com.treasure.notes.service.dto.NotesDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Cost of listing the notes of a user, on the in-memory H2 database.
+ * <p>
+ * {@code createSpecification} only builds the criteria, the other benchmarks read the first page of 20 notes,
+ * newest first: with its total count, without it, and with a cursor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotesQueryServiceBenchmark {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20, Sort.by(Sort.Order.desc("createdDate"), Sort.Order.desc("id")));
+
+    @Param({ "1000" })
+    private int notesCount;
+
+    private ConfigurableApplicationContext context;
+
+    private NotesQueryService notesQueryService;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start();
+        notesQueryService = context.getBean(NotesQueryService.class);
+        NotesRepository notesRepository = context.getBean(NotesRepository.class);
+        User user = context.getBean(UserRepository.class).findOneWithAuthoritiesByLogin("user").orElseThrow();
+
+        List<Notes> notes = new ArrayList<>();
+        for (int i = 0; i < notesCount; i++) {
+            notes.add(new Notes().content("Benchmark notes " + i).user(user));
+            if (notes.size() == 500) {
+                notesRepository.saveAll(notes);
+                notes.clear();
+            }
+        }
+        notesRepository.saveAll(notes);
+        BenchmarkApplication.authenticate(user);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Benchmark
+    public Specification<Notes> createSpecification() {
+        return notesQueryService.createSpecification(new NotesCriteria());
+    }
+
+    @Benchmark
+    public Page<NotesDTO> findByCriteria() {
+        return notesQueryService.findByCriteria(new NotesCriteria(), FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Slice<NotesDTO> findSliceByCriteria() {
+        return notesQueryService.findSliceByCriteria(new NotesCriteria(), FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Slice<NotesDTO> findByCriteriaWithCursor() {
+        return notesQueryService.findByCriteria(new NotesCriteria(), null, FIRST_PAGE.getPageSize());
+    }
+}
@@ -0,0 +1,52 @@
+package com.treasure.notes.service.mapper;
+
+import com.treasure.notes.domain.Notes;
+import com.treasure.notes.domain.User;
+import com.treasure.notes.service.dto.NotesDTO;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Cost of mapping one notes between its entity and its DTO.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotesMapperBenchmark {
+
+    private NotesMapper notesMapper;
+
+    private Notes notes;
+
+    private NotesDTO notesDTO;
+
+    @Setup
+    public void setup() {
+        NotesMapperImpl notesMapperImpl = new NotesMapperImpl();
+        ReflectionTestUtils.setField(notesMapperImpl, "userMapper", new UserMapper());
+        notesMapper = notesMapperImpl;
+
+        User user = new User();
+        user.setId(1L);
+        user.setLogin("benchmark-user");
+        notes = new Notes().id(1L).content("Remember the milk, the eggs and the bread").user(user);
+        notes.setCreatedDate(new Date());
+        notes.setVersion(0L);
+        notesDTO = notesMapper.toDto(notes);
+    }
+
+    @Benchmark
+    public NotesDTO toDto() {
+        return notesMapper.toDto(notes);
+    }
+
+    @Benchmark
+    public Notes toEntity() {
+        return notesMapper.toEntity(notesDTO);
+    }
+}
@@ -0,0 +1,87 @@
+package com.treasure.notes.loadtest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Samples gauges of the application during the measurement, such as the JDBC connections in use, to relate the
+ * latencies to the concurrency they were measured at.
+ */
+class GaugeSampler implements AutoCloseable {
+
+    private static final long PERIOD_MILLIS = 10;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Histogram> samples = new LinkedHashMap<>();
+
+    private final long measureFromNanos;
+
+    private final long stopAtNanos;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    GaugeSampler(MeterRegistry meterRegistry, List<String> gaugeNames, long measureFromNanos, long stopAtNanos) {
+        this.meterRegistry = meterRegistry;
+        this.measureFromNanos = measureFromNanos;
+        this.stopAtNanos = stopAtNanos;
+        gaugeNames.forEach(name -> samples.put(name, new Histogram(3)));
+    }
+
+    void start() {
+        scheduler.scheduleAtFixedRate(this::sample, 0, PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        if (now < measureFromNanos || now > stopAtNanos) {
+            return;
+        }
+        samples.forEach((name, histogram) -> {
+            // The sum of the gauges of this name, such as those of several connection pools
+            double value = meterRegistry.find(name).gauges().stream().mapToDouble(Gauge::value).filter(Double::isFinite).sum();
+            histogram.recordValue(Math.max(0, Math.round(value)));
+        });
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-40s %10s %10s %10s %10s%n", "gauge", "mean", "p50", "p99", "max");
+        samples.forEach((name, histogram) ->
+            out.printf(
+                "%-40s %10.1f %10d %10d %10d%n",
+                name,
+                histogram.getMean(),
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(99),
+                histogram.getMaxValue()
+            )
+        );
+    }
+
+    Map<String, Object> statistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        samples.forEach((name, histogram) -> {
+            Map<String, Object> gauge = new LinkedHashMap<>();
+            gauge.put("samples", histogram.getTotalCount());
+            gauge.put("mean", histogram.getMean());
+            gauge.put("p50", histogram.getValueAtPercentile(50));
+            gauge.put("p99", histogram.getValueAtPercentile(99));
+            gauge.put("max", histogram.getMaxValue());
+            statistics.put(name, gauge);
+        });
+        return statistics;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,105 @@
+package com.treasure.notes.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * The latencies of all the {@link VirtualUser}s, by operation, in microseconds, and the gauges sampled meanwhile.
+ */
+class LoadTestReport {
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+    private final Histogram total = new Histogram(3);
+
+    private final Map<String, Object> settings;
+
+    private final long durationSeconds;
+
+    private final GaugeSampler gaugeSampler;
+
+    LoadTestReport(List<VirtualUser> users, Map<String, Object> settings, long durationSeconds, GaugeSampler gaugeSampler) {
+        this.settings = settings;
+        this.durationSeconds = durationSeconds;
+        this.gaugeSampler = gaugeSampler;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = new Histogram(3);
+            long operationErrors = 0;
+            for (VirtualUser user : users) {
+                histogram.add(user.getLatencies().get(operation));
+                operationErrors += user.getErrors().get(operation);
+            }
+            latencies.put(operation, histogram);
+            errors.put(operation, operationErrors);
+            total.add(histogram);
+        }
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-8s %10s %8s %10s %10s %10s %10s %10s %10s%n", "", "requests", "errors", "req/s", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us");
+        latencies.forEach((operation, histogram) -> print(out, operation.name(), histogram, errors.get(operation)));
+        print(out, "TOTAL", total, errors.values().stream().mapToLong(Long::longValue).sum());
+        out.println();
+        gaugeSampler.print(out);
+    }
+
+    private void print(PrintStream out, String name, Histogram histogram, long errorCount) {
+        out.printf(
+            "%-8s %10d %8d %10.1f %10d %10d %10d %10d %10d%n",
+            name,
+            histogram.getTotalCount(),
+            errorCount,
+            (double) histogram.getTotalCount() / durationSeconds,
+            histogram.getValueAtPercentile(50),
+            histogram.getValueAtPercentile(90),
+            histogram.getValueAtPercentile(99),
+            histogram.getValueAtPercentile(99.9),
+            histogram.getMaxValue()
+        );
+    }
+
+    /**
+     * Write the settings of the run and the statistics of each operation as JSON, to compare runs of several builds.
+     */
+    void write(File file, ObjectMapper objectMapper) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", Instant.now().toString());
+        report.put("settings", settings);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        latencies.forEach((operation, histogram) -> operations.put(operation.name(), statistics(histogram, errors.get(operation))));
+        report.put("operations", operations);
+        report.put("total", statistics(total, errors.values().stream().mapToLong(Long::longValue).sum()));
+        report.put("gauges", gaugeSampler.statistics());
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+    }
+
+    private Map<String, Object> statistics(Histogram histogram, long errorCount) {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("requests", histogram.getTotalCount());
+        statistics.put("errors", errorCount);
+        statistics.put("requestsPerSecond", (double) histogram.getTotalCount() / durationSeconds);
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", histogram.getMean());
+        latency.put("p50", histogram.getValueAtPercentile(50));
+        latency.put("p90", histogram.getValueAtPercentile(90));
+        latency.put("p99", histogram.getValueAtPercentile(99));
+        latency.put("p99.9", histogram.getValueAtPercentile(99.9));
+        latency.put("max", histogram.getMaxValue());
+        statistics.put("latencyMicros", latency);
+        return statistics;
+    }
+}
@@ -0,0 +1,161 @@
+package com.treasure.notes.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treasure.notes.NotesServiceApp;
+import com.treasure.notes.domain.User;
+import com.treasure.notes.service.UserService;
+import com.treasure.notes.service.dto.AdminUserDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Load test of the notes REST API, run by the {@code loadtest} Maven profile.
+ * <p>
+ * The application is booted with the {@code dev} profile, on its in-memory H2 database and a random port. The users
+ * are registered with {@link UserService#registerUser}, then each of them logs in through {@code /api/authenticate}
+ * and loops over HTTP requests, see {@link VirtualUser}. The options are:
+ * <ul>
+ *     <li>{@code --users}: the number of concurrent users, 10 by default;</li>
+ *     <li>{@code --duration}: the seconds during which the latencies are recorded, 30 by default;</li>
+ *     <li>{@code --warmup}: the seconds of load before that, 10 by default;</li>
+ *     <li>{@code --notes}: the number of notes of each user before the test, 100 by default;</li>
+ *     <li>{@code --execution}: {@code platform} or {@code virtual} threads, see {@code application.execution.mode};</li>
+ *     <li>{@code --label}: a name of the run written to the report, such as the build or branch;</li>
+ *     <li>{@code --report}: the JSON report, {@code target/loadtest-report.json} by default.</li>
+ * </ul>
+ * The JDBC connections in use and the API requests in flight are sampled during the measurement, to compare the
+ * latencies of the execution modes at the concurrency they reach.
+ */
+public final class NotesLoadTest {
+
+    private static final String PASSWORD = "loadtest-password";
+
+    private NotesLoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int usersCount = Integer.parseInt(options.getOrDefault("users", "10"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "30"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "10"));
+        int notesCount = Integer.parseInt(options.getOrDefault("notes", "100"));
+        String execution = options.getOrDefault("execution", "platform").toLowerCase(Locale.ROOT);
+        File reportFile = new File(options.getOrDefault("report", "target/loadtest-report.json"));
+
+        // Read by devtools before the application properties, restarting would boot the application a second time
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(NotesServiceApp.class)
+            .profiles("dev")
+            // Passed as arguments, the default properties would be overridden by the configuration files
+            .run(
+                "--server.port=0",
+                "--application.execution.mode=" + execution,
+                "--logging.level.ROOT=WARN",
+                "--logging.level.com.treasure.notes=WARN",
+                // The test classes and configuration are on the classpath too: the schema is not validated against the
+                // test entities, and the statements are not recorded, that list would grow for the whole run
+                "--spring.jpa.properties.hibernate.hbm2ddl.auto=none",
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + PassThroughStatementInspector.class.getName()
+            );
+        ExecutorService executor = Executors.newFixedThreadPool(usersCount);
+        try {
+            URI baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            UserService userService = context.getBean(UserService.class);
+
+            List<VirtualUser> users = new ArrayList<>();
+            long measureFromNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long stopAtNanos = measureFromNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+            for (int i = 0; i < usersCount; i++) {
+                String login = register(userService, i);
+                VirtualUser user = new VirtualUser(client, objectMapper, baseUri, login, PASSWORD, measureFromNanos, stopAtNanos);
+                user.logIn();
+                user.seed(notesCount);
+                users.add(user);
+            }
+            if (System.nanoTime() > measureFromNanos) {
+                System.err.println("The users were set up after the end of the warm-up, consider a longer --warmup");
+            }
+
+            GaugeSampler gaugeSampler = new GaugeSampler(
+                context.getBean(MeterRegistry.class),
+                List.of("hikaricp.connections.active", "hikaricp.connections.pending", "http.server.requests.in.flight"),
+                measureFromNanos,
+                stopAtNanos
+            );
+            List<Future<VirtualUser>> runs = new ArrayList<>();
+            try (gaugeSampler) {
+                gaugeSampler.start();
+                for (VirtualUser user : users) {
+                    runs.add(executor.submit(user));
+                }
+                for (Future<VirtualUser> run : runs) {
+                    run.get();
+                }
+            }
+
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("label", options.getOrDefault("label", ""));
+            settings.put("users", usersCount);
+            settings.put("warmupSeconds", warmupSeconds);
+            settings.put("durationSeconds", durationSeconds);
+            settings.put("notesPerUser", notesCount);
+            settings.put("execution", execution);
+            settings.put("javaVersion", System.getProperty("java.version"));
+            settings.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+            LoadTestReport report = new LoadTestReport(users, settings, durationSeconds, gaugeSampler);
+            report.print(System.out);
+            report.write(reportFile, objectMapper);
+            System.out.println("Report written to " + reportFile.getAbsolutePath());
+        } finally {
+            executor.shutdownNow();
+            context.close();
+        }
+    }
+
+    private static String register(UserService userService, int index) {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin("loadtest-" + index);
+        userDTO.setEmail("loadtest-" + index + "@localhost");
+        userDTO.setLangKey("en");
+        User user = userService.registerUser(userDTO, PASSWORD);
+        userService.activateRegistration(user.getActivationKey());
+        return user.getLogin();
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                throw new IllegalArgumentException("Expected --name value options, got " + String.join(" ", args));
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    public static class PassThroughStatementInspector implements StatementInspector {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String inspect(String sql) {
+            return sql;
+        }
+    }
+}
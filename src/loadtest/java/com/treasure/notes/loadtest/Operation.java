@@ -0,0 +1,12 @@
+package com.treasure.notes.loadtest;
+
+/**
+ * The requests sent by a {@link VirtualUser}, in the order of one iteration.
+ */
+enum Operation {
+    CREATE,
+    LIST,
+    SEARCH,
+    UPDATE,
+    DELETE,
+}
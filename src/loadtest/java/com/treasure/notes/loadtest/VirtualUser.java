@@ -0,0 +1,160 @@
+package com.treasure.notes.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.HdrHistogram.Histogram;
+
+/**
+ * A user of the load test: it logs in, then loops over creating, listing, searching, updating and deleting a notes
+ * until the end of the test. Only the requests sent after the warm-up are recorded.
+ */
+class VirtualUser implements Callable<VirtualUser> {
+
+    static final String SEARCH_TERM = "loadtest";
+
+    private static final int SEED_BATCH_SIZE = 100;
+
+    private final HttpClient client;
+
+    private final ObjectMapper objectMapper;
+
+    private final URI baseUri;
+
+    private final String login;
+
+    private final String password;
+
+    private final long measureFromNanos;
+
+    private final long stopAtNanos;
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+    private String authorization;
+
+    private long iteration;
+
+    VirtualUser(
+        HttpClient client,
+        ObjectMapper objectMapper,
+        URI baseUri,
+        String login,
+        String password,
+        long measureFromNanos,
+        long stopAtNanos
+    ) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.baseUri = baseUri;
+        this.login = login;
+        this.password = password;
+        this.measureFromNanos = measureFromNanos;
+        this.stopAtNanos = stopAtNanos;
+        for (Operation operation : Operation.values()) {
+            // Auto-resizing, with 3 significant digits
+            latencies.put(operation, new Histogram(3));
+            errors.put(operation, 0L);
+        }
+    }
+
+    /**
+     * Log in, so that the following requests carry the JWT of the user.
+     */
+    void logIn() throws IOException, InterruptedException {
+        ObjectNode credentials = objectMapper.createObjectNode().put("username", login).put("password", password);
+        HttpResponse<String> response = client.send(
+            HttpRequest
+                .newBuilder(baseUri.resolve("/api/authenticate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials.toString()))
+                .build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not log in " + login + ": " + response.statusCode());
+        }
+        authorization = "Bearer " + objectMapper.readTree(response.body()).get("id_token").asText();
+    }
+
+    /**
+     * Create notes before the test, so that listing and searching do not run on an empty table.
+     */
+    void seed(int notesCount) throws IOException, InterruptedException {
+        for (int created = 0; created < notesCount; created += SEED_BATCH_SIZE) {
+            ArrayNode batch = objectMapper.createArrayNode();
+            for (int i = created; i < Math.min(notesCount, created + SEED_BATCH_SIZE); i++) {
+                batch.addObject().put("content", login + " " + SEARCH_TERM + " seed notes " + i);
+            }
+            HttpResponse<String> response = client.send(request("/api/notes/batch").POST(body(batch)).header("Content-Type", "application/json").build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Could not seed the notes of " + login + ": " + response.statusCode());
+            }
+        }
+    }
+
+    @Override
+    public VirtualUser call() throws IOException, InterruptedException {
+        while (System.nanoTime() < stopAtNanos) {
+            iteration++;
+            ObjectNode notes = objectMapper.createObjectNode().put("content", login + " " + SEARCH_TERM + " notes " + iteration);
+            HttpResponse<String> created = send(Operation.CREATE, request("/api/notes").POST(body(notes)));
+            send(Operation.LIST, request("/api/notes?page=0&size=20&sort=createdDate,desc").GET());
+            send(Operation.SEARCH, request("/api/_search/notes?query=" + SEARCH_TERM + "&size=20").GET());
+            if (created.statusCode() != 201) {
+                continue;
+            }
+            JsonNode createdNotes = objectMapper.readTree(created.body());
+            long id = createdNotes.get("id").asLong();
+            ObjectNode update = objectMapper
+                .createObjectNode()
+                .put("id", id)
+                .put("content", login + " " + SEARCH_TERM + " updated notes " + iteration)
+                .put("version", createdNotes.get("version").asLong());
+            send(Operation.UPDATE, request("/api/notes/" + id).PUT(body(update)));
+            send(Operation.DELETE, request("/api/notes/" + id).DELETE());
+        }
+        return this;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).header("Authorization", authorization).header("Accept", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher body(JsonNode json) {
+        return HttpRequest.BodyPublishers.ofString(json.toString());
+    }
+
+    private HttpResponse<String> send(Operation operation, HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpRequest httpRequest = request.header("Content-Type", "application/json").build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        long end = System.nanoTime();
+        if (start >= measureFromNanos && end <= stopAtNanos) {
+            latencies.get(operation).recordValue((end - start) / 1000);
+            if (response.statusCode() >= 400) {
+                errors.merge(operation, 1L, Long::sum);
+            }
+        }
+        return response;
+    }
+
+    Map<Operation, Histogram> getLatencies() {
+        return latencies;
+    }
+
+    Map<Operation, Long> getErrors() {
+        return errors;
+    }
+}
@@ -1,6 +1,8 @@
 package com.treasure.notes.aop.logging;
 
-import java.util.Arrays;
+import com.treasure.notes.config.ApplicationProperties;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.AfterThrowing;
@@ -16,15 +18,22 @@ import tech.jhipster.config.JHipsterConstants;
 /**
  * Aspect for logging execution of service and repository Spring components.
  *
- * By default, it only runs with the "dev" profile.
+ * By default, it only runs with the "dev" profile. Only a sample of the calls is logged, with their arguments and result
+ * cut to a maximum length, as set by {@link ApplicationProperties.Logging}.
  */
 @Aspect
 public class LoggingAspect {
 
     private final Environment env;
 
-    public LoggingAspect(Environment env) {
+    private final double sampleRate;
+
+    private final int maxArgumentLength;
+
+    public LoggingAspect(Environment env, ApplicationProperties applicationProperties) {
         this.env = env;
+        this.sampleRate = applicationProperties.getLogging().getSampleRate();
+        this.maxArgumentLength = applicationProperties.getLogging().getMaxArgumentLength();
     }
 
     /**
@@ -98,18 +107,68 @@ public class LoggingAspect {
     @Around("applicationPackagePointcut() && springBeanPointcut()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
         Logger log = logger(joinPoint);
-        if (log.isDebugEnabled()) {
-            log.debug("Enter: {}() with argument[s] = {}", joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        // Without debug, or when not sampled, the arguments and the result are not even formatted
+        boolean traced = log.isDebugEnabled() && isSampled();
+        if (traced) {
+            log.debug("Enter: {}() with argument[s] = {}", joinPoint.getSignature().getName(), format(joinPoint.getArgs()));
         }
         try {
             Object result = joinPoint.proceed();
-            if (log.isDebugEnabled()) {
-                log.debug("Exit: {}() with result = {}", joinPoint.getSignature().getName(), result);
+            if (traced) {
+                log.debug("Exit: {}() with result = {}", joinPoint.getSignature().getName(), format(result));
             }
             return result;
         } catch (IllegalArgumentException e) {
-            log.error("Illegal argument: {} in {}()", Arrays.toString(joinPoint.getArgs()), joinPoint.getSignature().getName());
+            log.error("Illegal argument: {} in {}()", format(joinPoint.getArgs()), joinPoint.getSignature().getName());
             throw e;
         }
     }
+
+    private boolean isSampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private String format(Object[] args) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(format(args[i]));
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Format an argument or result, cut to the maximum length as the result of a query may hold whole notes. Only the
+     * elements of a collection which fit are formatted.
+     */
+    private String format(Object value) {
+        if (maxArgumentLength <= 0) {
+            return String.valueOf(value);
+        }
+        if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            StringBuilder builder = new StringBuilder("[");
+            for (Object element : collection) {
+                if (builder.length() > maxArgumentLength) {
+                    break;
+                }
+                if (builder.length() > 1) {
+                    builder.append(", ");
+                }
+                builder.append(element);
+            }
+            return cut(builder.append(']').toString(), collection.size() + " elements");
+        }
+        String formatted = String.valueOf(value);
+        return cut(formatted, formatted.length() + " characters");
+    }
+
+    private String cut(String formatted, String size) {
+        if (formatted.length() <= maxArgumentLength) {
+            return formatted;
+        }
+        return formatted.substring(0, maxArgumentLength) + "... (" + size + ")";
+    }
 }
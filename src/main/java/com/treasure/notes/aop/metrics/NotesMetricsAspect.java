@@ -0,0 +1,159 @@
+package com.treasure.notes.aop.metrics;
+
+import com.treasure.notes.service.criteria.NotesCriteria;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+
+/**
+ * Aspect timing the public methods of the notes REST controller and of the notes query service.
+ * <p>
+ * Each method gets a {@link Timer} per shape of its {@link NotesCriteria} argument, that is the set of filters it
+ * holds, so that the latencies of the different queries are not mixed. The percentiles, histogram buckets and service
+ * level objectives of the timers are configured with the {@code management.metrics.distribution} properties.
+ */
+@Aspect
+public class NotesMetricsAspect {
+
+    static final String RESOURCE_TIMER = "notes.resource";
+
+    static final String QUERY_TIMER = "notes.query";
+
+    static final String NO_CRITERIA = "none";
+
+    private static final String[] FILTERS = { "id", "content", "userId" };
+
+    // The names of the filters set, indexed by the bits of the filters set
+    private static final String[] CRITERIA_SHAPES = new String[1 << FILTERS.length];
+
+    static {
+        for (int shape = 0; shape < CRITERIA_SHAPES.length; shape++) {
+            StringJoiner names = new StringJoiner(",").setEmptyValue(NO_CRITERIA);
+            for (int filter = 0; filter < FILTERS.length; filter++) {
+                if ((shape & (1 << filter)) != 0) {
+                    names.add(FILTERS[filter]);
+                }
+            }
+            CRITERIA_SHAPES[shape] = names.toString();
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    private final Clock clock;
+
+    private final ConcurrentMap<Method, AtomicReferenceArray<Timer>> timers = new ConcurrentHashMap<>();
+
+    public NotesMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.clock = meterRegistry.config().clock();
+    }
+
+    /**
+     * Pointcut that matches the public methods of the notes REST controller.
+     */
+    @Pointcut("execution(public * com.treasure.notes.web.rest.NotesResource.*(..))")
+    public void notesResourcePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Pointcut that matches the public methods of the notes query service.
+     */
+    @Pointcut("execution(public * com.treasure.notes.service.NotesQueryService.*(..))")
+    public void notesQueryServicePointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times the requests of the notes REST controller.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable the exception of the method.
+     */
+    @Around("notesResourcePointcut()")
+    public Object timeResource(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, RESOURCE_TIMER);
+    }
+
+    /**
+     * Advice that times the queries of the notes query service.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable the exception of the method.
+     */
+    @Around("notesQueryServicePointcut()")
+    public Object timeQuery(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, QUERY_TIMER);
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String name) throws Throwable {
+        // The shape is read before the method runs, the query service adds the user filter to the criteria
+        Timer timer = timer(name, ((MethodSignature) joinPoint.getSignature()).getMethod(), criteriaShape(joinPoint.getArgs()));
+        long start = clock.monotonicTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, Method method, int shape) {
+        AtomicReferenceArray<Timer> timersByShape = timers.computeIfAbsent(
+            method,
+            key -> new AtomicReferenceArray<>(CRITERIA_SHAPES.length)
+        );
+        Timer timer = timersByShape.get(shape);
+        if (timer == null) {
+            // Registering again is harmless, the registry returns the timer it already has
+            timer =
+                Timer
+                    .builder(name)
+                    .description("Time taken by the " + name.replace('.', ' ') + " methods, by criteria shape")
+                    .tag("method", methodTag(method))
+                    .tag("criteria", CRITERIA_SHAPES[shape])
+                    .register(meterRegistry);
+            timersByShape.set(shape, timer);
+        }
+        return timer;
+    }
+
+    /**
+     * The name of the method with the types of its parameters, as the queries are overloaded.
+     */
+    private static String methodTag(Method method) {
+        return Arrays
+            .stream(method.getParameterTypes())
+            .map(Class::getSimpleName)
+            .collect(Collectors.joining(",", method.getName() + "(", ")"));
+    }
+
+    private static int criteriaShape(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof NotesCriteria) {
+                NotesCriteria criteria = (NotesCriteria) arg;
+                return (
+                    (criteria.getId() != null ? 1 : 0) |
+                    (criteria.getContent() != null ? 1 << 1 : 0) |
+                    (criteria.getUserId() != null ? 1 << 2 : 0)
+                );
+            }
+        }
+        return 0;
+    }
+}
@@ -1,5 +1,8 @@
 package com.treasure.notes.config;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +12,580 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Cache cache = new Cache();
+
+    private final Execution execution = new Execution();
+
+    private final JdbcStatistics jdbcStatistics = new JdbcStatistics();
+
+    private final Logging logging = new Logging();
+
+    private final Mail mail = new Mail();
+
+    private final Notes notes = new Notes();
+
+    private final Search search = new Search();
+
+    private final Security security = new Security();
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Execution getExecution() {
+        return execution;
+    }
+
+    public JdbcStatistics getJdbcStatistics() {
+        return jdbcStatistics;
+    }
+
+    public Logging getLogging() {
+        return logging;
+    }
+
+    public Mail getMail() {
+        return mail;
+    }
+
+    public Notes getNotes() {
+        return notes;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    /**
+     * Settings of single caches, see {@link CacheConfiguration}.
+     */
+    public static class Cache {
+
+        private final Map<String, Region> regions = new HashMap<>();
+
+        /**
+         * The settings by cache name, which override {@code jhipster.cache.caffeine} for this cache.
+         */
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public static class Region {
+
+            private Long timeToLiveSeconds;
+
+            private Long maxEntries;
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
+
+    /**
+     * Threads running the HTTP requests and the {@code @Async} tasks, see {@link ExecutionConfiguration}.
+     */
+    public static class Execution {
+
+        private Mode mode = Mode.PLATFORM;
+
+        private int maxConcurrency = 0;
+
+        private long acquireTimeoutMillis = 500;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        /**
+         * The number of API requests, and of {@code @Async} tasks, run at once with virtual threads. Sized to the
+         * maximum pool size of the Hikari data source when 0 or less.
+         */
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        /**
+         * How long an API request waits for its turn before being answered with 503 Service Unavailable.
+         */
+        public long getAcquireTimeoutMillis() {
+            return acquireTimeoutMillis;
+        }
+
+        public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+            this.acquireTimeoutMillis = acquireTimeoutMillis;
+        }
+
+        public enum Mode {
+            /**
+             * The pools of Tomcat and of {@code spring.task.execution.pool}, whose sizes limit the concurrency.
+             */
+            PLATFORM,
+            /**
+             * A virtual thread per request and per task, requiring Java 21, the concurrency limited by a semaphore.
+             */
+            VIRTUAL,
+        }
+    }
+
+    /**
+     * Statistics of the JDBC statements, see {@link JdbcStatisticsConfiguration}.
+     */
+    public static class JdbcStatistics {
+
+        private boolean enabled = false;
+
+        private long slowStatementThresholdMillis = 100;
+
+        private int repeatedStatementThreshold = 10;
+
+        private int maxStatements = 500;
+
+        private int maxSlowStatements = 50;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * The duration from which a statement is reported as slow.
+         */
+        public long getSlowStatementThresholdMillis() {
+            return slowStatementThresholdMillis;
+        }
+
+        public void setSlowStatementThresholdMillis(long slowStatementThresholdMillis) {
+            this.slowStatementThresholdMillis = slowStatementThresholdMillis;
+        }
+
+        /**
+         * The number of executions of the same statement by one request from which it is reported, as a likely N+1
+         * selects.
+         */
+        public int getRepeatedStatementThreshold() {
+            return repeatedStatementThreshold;
+        }
+
+        public void setRepeatedStatementThreshold(int repeatedStatementThreshold) {
+            this.repeatedStatementThreshold = repeatedStatementThreshold;
+        }
+
+        /**
+         * The number of distinct statements with their own statistics, the others are counted together.
+         */
+        public int getMaxStatements() {
+            return maxStatements;
+        }
+
+        public void setMaxStatements(int maxStatements) {
+            this.maxStatements = maxStatements;
+        }
+
+        /**
+         * The number of latest slow statements kept.
+         */
+        public int getMaxSlowStatements() {
+            return maxSlowStatements;
+        }
+
+        public void setMaxSlowStatements(int maxSlowStatements) {
+            this.maxSlowStatements = maxSlowStatements;
+        }
+    }
+
+    /**
+     * Settings of the {@link com.treasure.notes.aop.logging.LoggingAspect}, see {@link LoggingAspectConfiguration}.
+     */
+    public static class Logging {
+
+        private boolean aspectEnabled = false;
+
+        private double sampleRate = 1.0;
+
+        private int maxArgumentLength = 200;
+
+        /**
+         * Whether the aspect also runs outside of the {@code dev} profile.
+         */
+        public boolean isAspectEnabled() {
+            return aspectEnabled;
+        }
+
+        public void setAspectEnabled(boolean aspectEnabled) {
+            this.aspectEnabled = aspectEnabled;
+        }
+
+        /**
+         * The share of the calls, between 0 and 1, whose arguments and result are logged.
+         */
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        /**
+         * The number of characters an argument or result is cut to in the logs, not cut when 0 or less.
+         */
+        public int getMaxArgumentLength() {
+            return maxArgumentLength;
+        }
+
+        public void setMaxArgumentLength(int maxArgumentLength) {
+            this.maxArgumentLength = maxArgumentLength;
+        }
+    }
+
+    /**
+     * Delivery of the emails, see {@link com.treasure.notes.service.MailDispatcher}.
+     */
+    public static class Mail {
+
+        private int queueCapacity = 1000;
+
+        private int batchSize = 50;
+
+        private int maxAttempts = 8;
+
+        private long retryInitialDelaySeconds = 30;
+
+        private long retryMaxDelaySeconds = 3600;
+
+        private long retryIntervalMillis = 10000;
+
+        private long givenUpRetentionDays = 7;
+
+        private boolean templateCache = true;
+
+        private List<String> languages = List.of(Constants.DEFAULT_LANGUAGE, "fr");
+
+        /**
+         * The emails kept in memory until they are sent, those beyond are written to the outbox table.
+         */
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        /**
+         * The emails sent at most over one SMTP connection.
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * The attempts to send an email, after which it is given up on: its content is erased, and it is only kept in
+         * the outbox table for {@link #getGivenUpRetentionDays()}.
+         */
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        /**
+         * The wait before sending a failed email again, doubled on each further failure.
+         */
+        public long getRetryInitialDelaySeconds() {
+            return retryInitialDelaySeconds;
+        }
+
+        public void setRetryInitialDelaySeconds(long retryInitialDelaySeconds) {
+            this.retryInitialDelaySeconds = retryInitialDelaySeconds;
+        }
+
+        public long getRetryMaxDelaySeconds() {
+            return retryMaxDelaySeconds;
+        }
+
+        public void setRetryMaxDelaySeconds(long retryMaxDelaySeconds) {
+            this.retryMaxDelaySeconds = retryMaxDelaySeconds;
+        }
+
+        /**
+         * The period of the look-up of the emails to send again.
+         */
+        public long getRetryIntervalMillis() {
+            return retryIntervalMillis;
+        }
+
+        public void setRetryIntervalMillis(long retryIntervalMillis) {
+            this.retryIntervalMillis = retryIntervalMillis;
+        }
+
+        /**
+         * How long the emails given up on are kept in the outbox table, for inspection.
+         */
+        public long getGivenUpRetentionDays() {
+            return givenUpRetentionDays;
+        }
+
+        public void setGivenUpRetentionDays(long givenUpRetentionDays) {
+            this.givenUpRetentionDays = givenUpRetentionDays;
+        }
+
+        /**
+         * Whether each mail template is rendered once for each language, then only completed with the variables of the user.
+         */
+        public boolean isTemplateCache() {
+            return templateCache;
+        }
+
+        public void setTemplateCache(boolean templateCache) {
+            this.templateCache = templateCache;
+        }
+
+        /**
+         * The languages the emails are written in, the emails of the users of another language being written in the
+         * {@link Constants#DEFAULT_LANGUAGE}.
+         */
+        public List<String> getLanguages() {
+            return languages;
+        }
+
+        public void setLanguages(List<String> languages) {
+            this.languages = languages;
+        }
+    }
+
+    public static class Notes {
+
+        private TotalCount totalCount = TotalCount.EXACT;
+
+        private int batchMaxSize = 500;
+
+        private int importFlushSize = 1000;
+
+        private int importMaxErrors = 100;
+
+        public TotalCount getTotalCount() {
+            return totalCount;
+        }
+
+        public void setTotalCount(TotalCount totalCount) {
+            this.totalCount = totalCount;
+        }
+
+        public int getBatchMaxSize() {
+            return batchMaxSize;
+        }
+
+        public void setBatchMaxSize(int batchMaxSize) {
+            this.batchMaxSize = batchMaxSize;
+        }
+
+        public int getImportFlushSize() {
+            return importFlushSize;
+        }
+
+        public void setImportFlushSize(int importFlushSize) {
+            this.importFlushSize = importFlushSize;
+        }
+
+        /**
+         * The rejected records of an import reported with their line, the others being only counted.
+         */
+        public int getImportMaxErrors() {
+            return importMaxErrors;
+        }
+
+        public void setImportMaxErrors(int importMaxErrors) {
+            this.importMaxErrors = importMaxErrors;
+        }
+
+        /**
+         * How the total number of notes is computed when listing them.
+         */
+        public enum TotalCount {
+            /**
+             * A {@code count} query is run for every page.
+             */
+            EXACT,
+            /**
+             * The total is kept per user, and only counted again once a note of this user was created or deleted.
+             */
+            CACHED,
+            /**
+             * No total is returned.
+             */
+            NONE,
+        }
+    }
+
+    /**
+     * Full-text index of the notes content, see {@link com.treasure.notes.repository.search.NotesSearchRepository}.
+     */
+    public static class Search {
+
+        private String indexDirectory;
+
+        private boolean rebuildOnStartup = true;
+
+        private long commitIntervalMillis = 60000;
+
+        public String getIndexDirectory() {
+            return indexDirectory;
+        }
+
+        public void setIndexDirectory(String indexDirectory) {
+            this.indexDirectory = indexDirectory;
+        }
+
+        public boolean isRebuildOnStartup() {
+            return rebuildOnStartup;
+        }
+
+        public void setRebuildOnStartup(boolean rebuildOnStartup) {
+            this.rebuildOnStartup = rebuildOnStartup;
+        }
+
+        /**
+         * The period of the commits of the index, the changes made since the last one being lost on a crash.
+         */
+        public long getCommitIntervalMillis() {
+            return commitIntervalMillis;
+        }
+
+        public void setCommitIntervalMillis(long commitIntervalMillis) {
+            this.commitIntervalMillis = commitIntervalMillis;
+        }
+    }
+
+    public static class Security {
+
+        private final AuthenticationCache authenticationCache = new AuthenticationCache();
+
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+
+        public AuthenticationCache getAuthenticationCache() {
+            return authenticationCache;
+        }
+
+        public PasswordHashing getPasswordHashing() {
+            return passwordHashing;
+        }
+
+        /**
+         * Cache of verified JWTs, see {@link com.treasure.notes.security.jwt.TokenProvider}.
+         */
+        public static class AuthenticationCache {
+
+            private boolean enabled = true;
+
+            private long maxEntries = 10000;
+
+            private long timeToLiveSeconds = 300;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+
+        /**
+         * Executor of the BCrypt hashing, see {@link com.treasure.notes.security.BoundedPasswordEncoder}.
+         */
+        public static class PasswordHashing {
+
+            private int strength = 10;
+
+            private int threads = 0;
+
+            private int queueCapacity = 50;
+
+            /**
+             * The log rounds of BCrypt: a password hashed with fewer rounds is hashed again when its user logs in.
+             */
+            public int getStrength() {
+                return strength;
+            }
+
+            public void setStrength(int strength) {
+                this.strength = strength;
+            }
+
+            /**
+             * The passwords hashed at once, the number of processors when 0.
+             */
+            public int getThreads() {
+                return threads;
+            }
+
+            public void setThreads(int threads) {
+                this.threads = threads;
+            }
+
+            /**
+             * The passwords waiting to be hashed, those beyond are answered with 503 Service Unavailable.
+             */
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+        }
+    }
+}
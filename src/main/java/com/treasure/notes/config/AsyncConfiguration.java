@@ -1,13 +1,17 @@
 package com.treasure.notes.config;
 
+import com.treasure.notes.config.execution.VirtualThreads;
 import java.util.concurrent.Executor;
+import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -23,13 +27,33 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     private final TaskExecutionProperties taskExecutionProperties;
 
-    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties) {
+    private final ApplicationProperties applicationProperties;
+
+    private final ObjectProvider<DataSource> dataSource;
+
+    public AsyncConfiguration(
+        TaskExecutionProperties taskExecutionProperties,
+        ApplicationProperties applicationProperties,
+        ObjectProvider<DataSource> dataSource
+    ) {
         this.taskExecutionProperties = taskExecutionProperties;
+        this.applicationProperties = applicationProperties;
+        this.dataSource = dataSource;
     }
 
     @Override
     @Bean(name = "taskExecutor")
     public Executor getAsyncExecutor() {
+        ApplicationProperties.Execution execution = applicationProperties.getExecution();
+        if (execution.getMode() == ApplicationProperties.Execution.Mode.VIRTUAL) {
+            log.debug("Creating Async Task Executor on virtual threads");
+            // A thread per task, the tasks beyond the limit wait for a running one to complete instead of queuing
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(
+                VirtualThreads.threadFactory(taskExecutionProperties.getThreadNamePrefix())
+            );
+            executor.setConcurrencyLimit(ExecutionConfiguration.maxConcurrency(execution, dataSource.getObject()));
+            return new ExceptionHandlingAsyncTaskExecutor(executor);
+        }
         log.debug("Creating Async Task Executor");
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(taskExecutionProperties.getPool().getCoreSize());
@@ -0,0 +1,111 @@
+package com.treasure.notes.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.boot.info.GitProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.jcache.JCacheCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.jhipster.config.JHipsterProperties;
+import tech.jhipster.config.cache.PrefixedKeyGenerator;
+
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    private GitProperties gitProperties;
+    private BuildProperties buildProperties;
+    private final CaffeineConfiguration<Object, Object> jcacheConfiguration;
+
+    private final Map<String, ApplicationProperties.Cache.Region> regions;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        JHipsterProperties.Cache.Caffeine caffeine = jHipsterProperties.getCache().getCaffeine();
+
+        CaffeineConfiguration<Object, Object> caffeineConfiguration = new CaffeineConfiguration<>();
+        caffeineConfiguration.setMaximumSize(OptionalLong.of(caffeine.getMaxEntries()));
+        caffeineConfiguration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(caffeine.getTimeToLiveSeconds())));
+        caffeineConfiguration.setStatisticsEnabled(true);
+        jcacheConfiguration = caffeineConfiguration;
+        regions = applicationProperties.getCache().getRegions();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer() {
+        return cm -> {
+            createCache(cm, com.treasure.notes.repository.UserRepository.USERS_BY_LOGIN_CACHE);
+            createCache(cm, com.treasure.notes.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, com.treasure.notes.security.DomainUserDetailsService.USER_DETAILS_CACHE);
+            createCache(cm, com.treasure.notes.repository.NotesRepository.NOTES_COUNT_BY_USER_CACHE);
+            createCache(cm, com.treasure.notes.domain.User.class.getName());
+            createCache(cm, com.treasure.notes.domain.Authority.class.getName());
+            createCache(cm, com.treasure.notes.domain.User.class.getName() + ".authorities");
+            createCache(cm, com.treasure.notes.domain.Notes.class.getName());
+            // jhipster-needle-caffeine-add-entry
+        };
+    }
+
+    /**
+     * Puts and evictions done during a transaction are only applied once it is committed: an eviction done before the
+     * commit would let a concurrent request cache the old row again, and one done by a rolled back transaction would
+     * be useless.
+     */
+    @Bean
+    public CacheManagerCustomizer<JCacheCacheManager> transactionAwareCacheManagerCustomizer() {
+        return cm -> cm.setTransactionAware(true);
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        } else {
+            cm.createCache(cacheName, cacheConfiguration(cacheName));
+        }
+    }
+
+    private javax.cache.configuration.Configuration<Object, Object> cacheConfiguration(String cacheName) {
+        ApplicationProperties.Cache.Region region = regions.get(cacheName);
+        if (region == null) {
+            return jcacheConfiguration;
+        }
+        CaffeineConfiguration<Object, Object> regionConfiguration = new CaffeineConfiguration<>(jcacheConfiguration);
+        if (region.getMaxEntries() != null) {
+            regionConfiguration.setMaximumSize(OptionalLong.of(region.getMaxEntries()));
+        }
+        if (region.getTimeToLiveSeconds() != null) {
+            regionConfiguration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(region.getTimeToLiveSeconds())));
+        }
+        return regionConfiguration;
+    }
+
+    @Autowired(required = false)
+    public void setGitProperties(GitProperties gitProperties) {
+        this.gitProperties = gitProperties;
+    }
+
+    @Autowired(required = false)
+    public void setBuildProperties(BuildProperties buildProperties) {
+        this.buildProperties = buildProperties;
+    }
+
+    @Bean
+    public KeyGenerator keyGenerator() {
+        return new PrefixedKeyGenerator(this.gitProperties, this.buildProperties);
+    }
+}
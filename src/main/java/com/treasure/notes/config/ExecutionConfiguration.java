@@ -0,0 +1,75 @@
+package com.treasure.notes.config;
+
+import com.treasure.notes.config.execution.ConcurrencyLimitFilter;
+import com.treasure.notes.config.execution.VirtualThreads;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.undertow.UndertowDeploymentInfoCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Virtual threads for the HTTP requests, enabled by {@code application.execution.mode: virtual}: Undertow starts a
+ * virtual thread per request, and the API requests run at once are limited to the connections of the data source,
+ * see {@link AsyncConfiguration} for the {@code @Async} tasks.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.execution", name = "mode", havingValue = "virtual")
+public class ExecutionConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionConfiguration.class);
+
+    /**
+     * The default maximum pool size of Hikari.
+     */
+    private static final int DEFAULT_MAX_CONCURRENCY = 10;
+
+    @Bean
+    public UndertowDeploymentInfoCustomizer virtualThreadsDeploymentInfoCustomizer() {
+        // Created now, so that the application fails to start on a JVM without virtual threads
+        Executor executor = VirtualThreads.executor("http-virtual-");
+        // The servlet requests are dispatched from the IO threads of Undertow to this executor, instead of its workers
+        return deploymentInfo -> deploymentInfo.setExecutor(executor);
+    }
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(ApplicationProperties applicationProperties, DataSource dataSource) {
+        ApplicationProperties.Execution execution = applicationProperties.getExecution();
+        return new ConcurrencyLimitFilter(maxConcurrency(execution, dataSource), execution.getAcquireTimeoutMillis());
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration(ConcurrencyLimitFilter concurrencyLimitFilter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(concurrencyLimitFilter);
+        // The management endpoints, such as the health checks, are answered even when the API is saturated
+        registration.addUrlPatterns("/api/*");
+        // Before the security filters, which load the users, and after the statistics of the JDBC statements
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * The configured concurrency, or the maximum pool size of the data source.
+     */
+    static int maxConcurrency(ApplicationProperties.Execution execution, DataSource dataSource) {
+        if (execution.getMaxConcurrency() > 0) {
+            return execution.getMaxConcurrency();
+        }
+        try {
+            // Not set until the pool is started when the size is not configured
+            if (dataSource.isWrapperFor(HikariDataSource.class) && dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() > 0) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read the maximum pool size of the data source: {}", e.getMessage());
+        }
+        return DEFAULT_MAX_CONCURRENCY;
+    }
+}
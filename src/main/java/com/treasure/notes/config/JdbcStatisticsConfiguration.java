@@ -0,0 +1,59 @@
+package com.treasure.notes.config;
+
+import com.treasure.notes.config.jdbc.JdbcStatisticsCollector;
+import com.treasure.notes.config.jdbc.JdbcStatisticsEndpoint;
+import com.treasure.notes.config.jdbc.JdbcStatisticsFilter;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Statistics of the JDBC statements, enabled by {@code application.jdbc-statistics.enabled}: the data source is
+ * wrapped in a proxy recording the statements and the rows read, and the HTTP requests are delimited to find the
+ * statements they repeat.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.jdbc-statistics", name = "enabled", havingValue = "true")
+public class JdbcStatisticsConfiguration {
+
+    @Bean
+    public JdbcStatisticsCollector jdbcStatisticsCollector(ApplicationProperties applicationProperties) {
+        return new JdbcStatisticsCollector(applicationProperties);
+    }
+
+    @Bean
+    public static BeanPostProcessor jdbcStatisticsDataSourcePostProcessor(ObjectProvider<JdbcStatisticsCollector> jdbcStatisticsCollector) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                JdbcStatisticsCollector collector = jdbcStatisticsCollector.getObject();
+                return ProxyDataSourceBuilder.create(beanName, (DataSource) bean).listener(collector).proxyResultSet(collector).build();
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<JdbcStatisticsFilter> jdbcStatisticsFilter(JdbcStatisticsCollector jdbcStatisticsCollector) {
+        FilterRegistrationBean<JdbcStatisticsFilter> registration = new FilterRegistrationBean<>(
+            new JdbcStatisticsFilter(jdbcStatisticsCollector)
+        );
+        // Before the security filters, which load the users
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public JdbcStatisticsEndpoint jdbcStatisticsEndpoint(JdbcStatisticsCollector jdbcStatisticsCollector) {
+        return new JdbcStatisticsEndpoint(jdbcStatisticsCollector);
+    }
+}
@@ -1,8 +1,13 @@
 package com.treasure.notes.config;
 
 import com.treasure.notes.aop.logging.LoggingAspect;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.core.type.AnnotatedTypeMetadata;
 import tech.jhipster.config.JHipsterConstants;
 
 @Configuration
@@ -10,8 +15,33 @@ import tech.jhipster.config.JHipsterConstants;
 public class LoggingAspectConfiguration {
 
     @Bean
-    @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
-    public LoggingAspect loggingAspect(Environment env) {
-        return new LoggingAspect(env);
+    @Conditional(LoggingAspectCondition.class)
+    public LoggingAspect loggingAspect(Environment env, ApplicationProperties applicationProperties) {
+        return new LoggingAspect(env, applicationProperties);
+    }
+
+    /**
+     * Matches with the "dev" profile or when {@code application.logging.aspect-enabled} is set, unless the logger of the
+     * application is off: the aspect would log nothing, and no bean would need to be proxied for it.
+     */
+    static class LoggingAspectCondition extends SpringBootCondition {
+
+        private static final String APPLICATION_LOGGER = "com.treasure.notes";
+
+        @Override
+        public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            Environment env = context.getEnvironment();
+            if (
+                !env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)) &&
+                !env.getProperty("application.logging.aspect-enabled", Boolean.class, false)
+            ) {
+                return ConditionOutcome.noMatch("The logging aspect is not enabled");
+            }
+            // The levels of the configuration are already applied to the loggers
+            if (!LoggerFactory.getLogger(APPLICATION_LOGGER).isErrorEnabled()) {
+                return ConditionOutcome.noMatch("The " + APPLICATION_LOGGER + " logger is off");
+            }
+            return ConditionOutcome.match();
+        }
     }
 }
@@ -0,0 +1,17 @@
+package com.treasure.notes.config;
+
+import com.treasure.notes.aop.metrics.NotesMetricsAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class MetricsConfiguration {
+
+    @Bean
+    public NotesMetricsAspect notesMetricsAspect(MeterRegistry meterRegistry) {
+        return new NotesMetricsAspect(meterRegistry);
+    }
+}
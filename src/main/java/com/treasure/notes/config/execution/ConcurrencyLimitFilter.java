@@ -0,0 +1,87 @@
+package com.treasure.notes.config.execution;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Limits the number of requests run at once, as the pool of request threads does without virtual threads: the
+ * requests waiting for a JDBC connection queue here, and are answered with 503 Service Unavailable once they waited
+ * longer than the timeout, instead of piling up on the connection pool.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private final Semaphore permits;
+
+    private final int maxConcurrency;
+
+    private final long acquireTimeoutMillis;
+
+    private Counter rejected;
+
+    public ConcurrencyLimitFilter(int maxConcurrency, long acquireTimeoutMillis) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getInFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("http.server.requests.in.flight", this, ConcurrencyLimitFilter::getInFlight)
+            .description("API requests being run")
+            .register(registry);
+        Gauge.builder("http.server.requests.queued", this, ConcurrencyLimitFilter::getQueued)
+            .description("API requests waiting for their turn")
+            .register(registry);
+        Gauge.builder("http.server.requests.max.concurrency", this, filter -> filter.maxConcurrency)
+            .description("API requests run at once at most")
+            .register(registry);
+        rejected = Counter.builder("http.server.requests.rejected")
+            .description("API requests answered with 503 after waiting for their turn")
+            .register(registry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.treasure.notes.config.execution;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads of Java 21, created by reflection: the application is built for Java 11 and only uses them when it
+ * runs on a JVM providing them.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A factory of virtual threads named by the prefix and a counter.
+     *
+     * @throws IllegalStateException if the JVM doesn't provide virtual threads.
+     */
+    public static ThreadFactory threadFactory(String namePrefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException(
+                "Virtual threads require Java 21 or later, the application runs on Java " + System.getProperty("java.version")
+            );
+        }
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Could not create a factory of virtual threads", e);
+        }
+    }
+
+    /**
+     * An executor starting a new virtual thread for each task.
+     */
+    public static Executor executor(String namePrefix) {
+        ThreadFactory threadFactory = threadFactory(namePrefix);
+        return task -> threadFactory.newThread(task).start();
+    }
+}
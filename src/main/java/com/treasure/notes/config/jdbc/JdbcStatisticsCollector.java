@@ -0,0 +1,481 @@
+package com.treasure.notes.config.jdbc;
+
+import com.treasure.notes.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogic;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the statistics of the JDBC statements run through the proxied {@link javax.sql.DataSource}: the latency
+ * and the rows fetched of each distinct statement, the slow statements, and the statements run many times by the same
+ * request, which are likely N+1 selects such as the lazy loading of an association for each entity of a page.
+ * <p>
+ * The requests are delimited by the {@link JdbcStatisticsFilter}. The rows of a result set are counted for the latest
+ * statement run by the thread before they are read.
+ */
+public class JdbcStatisticsCollector implements QueryExecutionListener, ResultSetProxyLogicFactory, MeterBinder {
+
+    static final String OTHER_STATEMENTS = "(other statements)";
+
+    private static final String START_NANOS = JdbcStatisticsCollector.class.getName() + ".startNanos";
+
+    private static final List<String> STATEMENT_TYPES = List.of("select", "insert", "update", "delete", "other");
+
+    private final Logger log = LoggerFactory.getLogger(JdbcStatisticsCollector.class);
+
+    private final ApplicationProperties.JdbcStatistics properties;
+
+    private final long slowStatementThresholdNanos;
+
+    private final ConcurrentMap<String, StatementStatistics> statements = new ConcurrentHashMap<>();
+
+    private final Deque<SlowStatement> slowStatements = new ConcurrentLinkedDeque<>();
+
+    private final ConcurrentMap<List<String>, RepeatedStatement> repeatedStatements = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<RequestStatistics> currentRequest = new ThreadLocal<>();
+
+    private final ThreadLocal<StatementStatistics> lastStatement = new ThreadLocal<>();
+
+    // Null until the collector is bound to the registry, which is created after the data source
+    private volatile Meters meters;
+
+    public JdbcStatisticsCollector(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getJdbcStatistics();
+        this.slowStatementThresholdNanos = TimeUnit.MILLISECONDS.toNanos(properties.getSlowStatementThresholdMillis());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meters = new Meters(registry);
+    }
+
+    /**
+     * Start counting the statements of a request run by the current thread.
+     *
+     * @param requestName the name of the request, read once it ends.
+     */
+    public void startRequest(Supplier<String> requestName) {
+        currentRequest.set(new RequestStatistics(requestName));
+    }
+
+    /**
+     * Stop counting the statements of the request run by the current thread, and report the repeated statements.
+     */
+    public void endRequest() {
+        RequestStatistics request = currentRequest.get();
+        currentRequest.remove();
+        lastStatement.remove();
+        if (request == null) {
+            return;
+        }
+        Meters currentMeters = meters;
+        if (currentMeters != null) {
+            currentMeters.statementsPerRequest.record(request.statements);
+        }
+        String requestName = null;
+        for (Map.Entry<String, Integer> executions : request.executionsBySql.entrySet()) {
+            if (executions.getValue() < properties.getRepeatedStatementThreshold()) {
+                continue;
+            }
+            if (requestName == null) {
+                requestName = request.name.get();
+            }
+            String sql = executions.getKey();
+            log.warn("Statement run {} times by {}, likely N+1 selects: {}", executions.getValue(), requestName, sql);
+            List<String> key = List.of(requestName, sql);
+            RepeatedStatement repeatedStatement = repeatedStatements.get(key);
+            if (repeatedStatement == null && repeatedStatements.size() < properties.getMaxStatements()) {
+                repeatedStatement = repeatedStatements.computeIfAbsent(key, k -> new RepeatedStatement(k.get(0), k.get(1)));
+            }
+            if (repeatedStatement != null) {
+                repeatedStatement.record(executions.getValue());
+            }
+            if (currentMeters != null) {
+                currentMeters.repeatedStatements(requestName).increment();
+            }
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedNanos = System.nanoTime() - execInfo.getCustomValue(START_NANOS, Long.class);
+        String sql = queryInfoList.size() == 1
+            ? queryInfoList.get(0).getQuery()
+            : queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        StatementStatistics statistics = statistics(sql);
+        statistics.record(elapsedNanos, execInfo.isSuccess());
+        lastStatement.set(statistics);
+        RequestStatistics request = currentRequest.get();
+        if (request != null) {
+            request.statements++;
+            request.executionsBySql.merge(sql, 1, Integer::sum);
+        }
+        Meters currentMeters = meters;
+        if (currentMeters != null) {
+            currentMeters.statementTimers.get(statementType(sql)).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+        if (elapsedNanos >= slowStatementThresholdNanos) {
+            String requestName = request != null ? request.name.get() : null;
+            log.warn("Slow statement of {} ms run by {}: {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), requestName, sql);
+            slowStatements.addLast(new SlowStatement(sql, elapsedNanos, requestName));
+            while (slowStatements.size() > properties.getMaxSlowStatements()) {
+                slowStatements.pollFirst();
+            }
+            if (currentMeters != null) {
+                currentMeters.slowStatements.increment();
+            }
+        }
+    }
+
+    @Override
+    public ResultSetProxyLogic create(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        return new RowCountingResultSetProxyLogic(ResultSetProxyLogicFactory.DEFAULT.create(resultSet, connectionInfo, proxyConfig));
+    }
+
+    /**
+     * The statistics of the distinct statements, the longest in total first.
+     */
+    public List<StatementStatistics> getStatements() {
+        return statements
+            .values()
+            .stream()
+            .sorted(Comparator.comparingLong(StatementStatistics::getTotalNanos).reversed())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * The latest slow statements, the oldest first.
+     */
+    public List<SlowStatement> getSlowStatements() {
+        return new ArrayList<>(slowStatements);
+    }
+
+    /**
+     * The statements run many times by the same request, the most often reported first.
+     */
+    public List<RepeatedStatement> getRepeatedStatements() {
+        return repeatedStatements
+            .values()
+            .stream()
+            .sorted(Comparator.comparingLong(RepeatedStatement::getRequests).reversed())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Forget the statistics collected so far, the metrics are left as they are.
+     */
+    public void reset() {
+        statements.clear();
+        slowStatements.clear();
+        repeatedStatements.clear();
+    }
+
+    private StatementStatistics statistics(String sql) {
+        StatementStatistics statistics = statements.get(sql);
+        if (statistics != null) {
+            return statistics;
+        }
+        String key = statements.size() < properties.getMaxStatements() ? sql : OTHER_STATEMENTS;
+        return statements.computeIfAbsent(key, StatementStatistics::new);
+    }
+
+    static String statementType(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        String type = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+        return STATEMENT_TYPES.contains(type) ? type : "other";
+    }
+
+    /**
+     * Counts the rows read from a result set.
+     */
+    private final class RowCountingResultSetProxyLogic implements ResultSetProxyLogic {
+
+        private final ResultSetProxyLogic delegate;
+
+        private StatementStatistics statistics;
+
+        private long rows;
+
+        private boolean closed;
+
+        private RowCountingResultSetProxyLogic(ResultSetProxyLogic delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object invoke(Method method, Object[] args) throws Throwable {
+            Object result = delegate.invoke(method, args);
+            String name = method.getName();
+            if ("next".equals(name) && Boolean.TRUE.equals(result)) {
+                if (statistics == null) {
+                    statistics = lastStatement.get();
+                }
+                if (statistics != null) {
+                    statistics.rows.increment();
+                }
+                rows++;
+            } else if ("close".equals(name) && !closed) {
+                closed = true;
+                Meters currentMeters = meters;
+                if (currentMeters != null) {
+                    currentMeters.rowsPerResultSet.record(rows);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The statements of the request run by a thread, only ever used by this thread.
+     */
+    private static final class RequestStatistics {
+
+        private final Supplier<String> name;
+
+        private final Map<String, Integer> executionsBySql = new HashMap<>();
+
+        private int statements;
+
+        private RequestStatistics(Supplier<String> name) {
+            this.name = name;
+        }
+    }
+
+    private static final class Meters {
+
+        private final MeterRegistry registry;
+
+        private final Map<String, Timer> statementTimers = new HashMap<>();
+
+        private final DistributionSummary rowsPerResultSet;
+
+        private final DistributionSummary statementsPerRequest;
+
+        private final Counter slowStatements;
+
+        private Meters(MeterRegistry registry) {
+            this.registry = registry;
+            for (String type : STATEMENT_TYPES) {
+                statementTimers.put(
+                    type,
+                    Timer.builder("jdbc.statements").description("Time taken by the JDBC statements").tag("type", type).register(registry)
+                );
+            }
+            rowsPerResultSet =
+                DistributionSummary.builder("jdbc.statements.rows").description("Rows read from a result set").register(registry);
+            statementsPerRequest =
+                DistributionSummary
+                    .builder("jdbc.requests.statements")
+                    .description("JDBC statements run by an HTTP request")
+                    .register(registry);
+            slowStatements =
+                Counter.builder("jdbc.statements.slow").description("JDBC statements slower than the threshold").register(registry);
+        }
+
+        private Counter repeatedStatements(String requestName) {
+            return Counter
+                .builder("jdbc.statements.repeated")
+                .description("JDBC statements run many times by the same request")
+                .tag("request", requestName)
+                .register(registry);
+        }
+    }
+
+    /**
+     * The statistics of a distinct statement.
+     */
+    public static final class StatementStatistics {
+
+        private final String sql;
+
+        private final LongAdder executions = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        private final LongAdder rows = new LongAdder();
+
+        private StatementStatistics(String sql) {
+            this.sql = sql;
+        }
+
+        private void record(long elapsedNanos, boolean success) {
+            executions.increment();
+            if (!success) {
+                errors.increment();
+            }
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getExecutions() {
+            return executions.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public double getTotalMillis() {
+            return totalNanos.sum() / 1e6;
+        }
+
+        public double getMeanMillis() {
+            long count = executions.sum();
+            return count == 0 ? 0 : totalNanos.sum() / 1e6 / count;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1e6;
+        }
+
+        /**
+         * The rows read from the result sets of the statement.
+         */
+        public long getRows() {
+            return rows.sum();
+        }
+    }
+
+    /**
+     * A statement slower than the threshold.
+     */
+    public static final class SlowStatement {
+
+        private final String sql;
+
+        private final double millis;
+
+        private final String request;
+
+        private final Instant executedAt = Instant.now();
+
+        private SlowStatement(String sql, long elapsedNanos, String request) {
+            this.sql = sql;
+            this.millis = elapsedNanos / 1e6;
+            this.request = request;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public double getMillis() {
+            return millis;
+        }
+
+        /**
+         * The request which ran the statement, {@code null} outside of a request.
+         */
+        public String getRequest() {
+            return request;
+        }
+
+        public Instant getExecutedAt() {
+            return executedAt;
+        }
+    }
+
+    /**
+     * A statement run many times by a request.
+     */
+    public static final class RepeatedStatement {
+
+        private final String request;
+
+        private final String sql;
+
+        private final LongAdder requests = new LongAdder();
+
+        private final LongAccumulator maxExecutions = new LongAccumulator(Long::max, 0);
+
+        private volatile Instant lastSeenAt;
+
+        private RepeatedStatement(String request, String sql) {
+            this.request = request;
+            this.sql = sql;
+        }
+
+        private void record(int executions) {
+            requests.increment();
+            maxExecutions.accumulate(executions);
+            lastSeenAt = Instant.now();
+        }
+
+        public String getRequest() {
+            return request;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * The number of requests which ran the statement many times.
+         */
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        /**
+         * The highest number of executions of the statement by one request.
+         */
+        public long getMaxExecutions() {
+            return maxExecutions.get();
+        }
+
+        public Instant getLastSeenAt() {
+            return lastSeenAt;
+        }
+    }
+}
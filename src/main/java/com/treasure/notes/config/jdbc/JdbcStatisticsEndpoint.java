@@ -0,0 +1,43 @@
+package com.treasure.notes.config.jdbc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Management endpoint of the statistics of the JDBC statements, see {@link JdbcStatisticsCollector}.
+ */
+@Endpoint(id = "jdbcstatistics")
+public class JdbcStatisticsEndpoint {
+
+    private final JdbcStatisticsCollector jdbcStatisticsCollector;
+
+    public JdbcStatisticsEndpoint(JdbcStatisticsCollector jdbcStatisticsCollector) {
+        this.jdbcStatisticsCollector = jdbcStatisticsCollector;
+    }
+
+    /**
+     * {@code GET /management/jdbcstatistics} : get the statistics of the statements, the slow statements and the
+     * statements run many times by the same request.
+     *
+     * @return the statistics.
+     */
+    @ReadOperation
+    public Map<String, Object> jdbcStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("statements", jdbcStatisticsCollector.getStatements());
+        statistics.put("slowStatements", jdbcStatisticsCollector.getSlowStatements());
+        statistics.put("repeatedStatements", jdbcStatisticsCollector.getRepeatedStatements());
+        return statistics;
+    }
+
+    /**
+     * {@code DELETE /management/jdbcstatistics} : forget the statistics collected so far.
+     */
+    @DeleteOperation
+    public void reset() {
+        jdbcStatisticsCollector.reset();
+    }
+}
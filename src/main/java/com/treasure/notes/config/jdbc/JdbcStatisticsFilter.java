@@ -0,0 +1,41 @@
+package com.treasure.notes.config.jdbc;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Delimits the requests for the {@link JdbcStatisticsCollector}, naming them by method and mapping pattern.
+ */
+public class JdbcStatisticsFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_PATTERN = "UNKNOWN";
+
+    private final JdbcStatisticsCollector jdbcStatisticsCollector;
+
+    public JdbcStatisticsFilter(JdbcStatisticsCollector jdbcStatisticsCollector) {
+        this.jdbcStatisticsCollector = jdbcStatisticsCollector;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        jdbcStatisticsCollector.startRequest(() -> requestName(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            jdbcStatisticsCollector.endRequest();
+        }
+    }
+
+    static String requestName(HttpServletRequest request) {
+        // The pattern is only known once the handler is found, and keeps the ids out of the name. Without one, as for
+        // a 404, the URI is not used either, since the name is a tag of the jdbc.statements.repeated meter
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : UNKNOWN_PATTERN);
+    }
+}
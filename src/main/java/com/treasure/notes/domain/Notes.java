@@ -1,5 +1,7 @@
 package com.treasure.notes.domain;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.io.Serializable;
@@ -12,6 +14,7 @@ import javax.validation.constraints.*;
  */
 @Entity
 @Table(name = "notes")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Notes implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -34,6 +37,10 @@ public class Notes implements Serializable {
     @Temporal(TemporalType.TIMESTAMP)
     private Date createdDate;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -81,6 +88,19 @@ public class Notes implements Serializable {
         this.createdDate = createdDate;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Notes version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
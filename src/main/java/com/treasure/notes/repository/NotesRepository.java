@@ -1,8 +1,11 @@
 package com.treasure.notes.repository;
 
 import com.treasure.notes.domain.Notes;
+import java.util.Collection;
 import java.util.List;
-
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
@@ -13,10 +16,46 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface NotesRepository extends JpaRepository<Notes, Long>, JpaSpecificationExecutor<Notes> {
+public interface NotesRepository extends JpaRepository<Notes, Long>, JpaSpecificationExecutor<Notes>, NotesSliceRepository {
+    String NOTES_COUNT_BY_USER_CACHE = "notesCountByUser";
+
     @Query(value = "SELECT * FROM Notes notes WHERE user_id = ?1 ORDER BY ?#{#pageable}",
         countQuery = "SELECT count(*) FROM USERS WHERE user_id = ?1",
         nativeQuery = true)
     Page<Notes> findByUserIsCurrentUser(Long userId, Pageable pageable);
 
+    @EntityGraph(attributePaths = "user")
+    Optional<Notes> findOneByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Stream the notes of a user in id order, read with a forward-only cursor fetching
+     * {@code hibernate.jdbc.fetch_size} rows at a time. The stream must be consumed and closed within a transaction.
+     * The streamed notes are not put in the second-level cache, so that an export doesn't evict the notes in use.
+     */
+    @QueryHints(
+        {
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_MODE, value = "IGNORE"),
+        }
+    )
+    @Query("select notes from Notes notes where notes.user.id = ?1 order by notes.id")
+    Stream<Notes> streamAllByUserId(Long userId);
+
+    /**
+     * The indexed fields of notes, read as projections so that they are not kept in the persistence context.
+     */
+    @Query("select notes.id as id, notes.user.id as userId, notes.content as content from Notes notes where notes.id in ?1")
+    List<IndexedNotes> findIndexedByIdIn(Collection<Long> ids);
+
+    /**
+     * The fields of a notes written to the search index.
+     */
+    interface IndexedNotes {
+        Long getId();
+
+        Long getUserId();
+
+        String getContent();
+    }
+
 }
@@ -0,0 +1,23 @@
+package com.treasure.notes.repository;
+
+import com.treasure.notes.domain.Notes;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Fragment of {@link NotesRepository} reading pages of notes without the total count query.
+ */
+public interface NotesSliceRepository {
+    /**
+     * Returns a {@link Slice} of the notes matching the given {@link Specification}.
+     * <p>
+     * Unlike {@code findAll(Specification, Pageable)}, no {@code count} query is issued: one extra row is fetched
+     * to know if there is a next slice.
+     *
+     * @param specification the specification the notes must match.
+     * @param pageable the offset, size and sort of the slice.
+     * @return the slice of notes.
+     */
+    Slice<Notes> findSlice(Specification<Notes> specification, Pageable pageable);
+}
@@ -0,0 +1,44 @@
+package com.treasure.notes.repository;
+
+import com.treasure.notes.domain.OutgoingMail;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Spring Data SQL repository for the OutgoingMail entity.
+ */
+@Repository
+public interface OutgoingMailRepository extends JpaRepository<OutgoingMail, Long> {
+    /**
+     * The emails to send again by now, those which failed too many times excluded, the longest waiting first.
+     */
+    @Query(
+        "select mail from OutgoingMail mail where mail.attempts < ?1 and mail.nextAttemptDate <= ?2 order by mail.nextAttemptDate, mail.id"
+    )
+    List<OutgoingMail> findDue(int maxAttempts, Instant now, Pageable pageable);
+
+    /**
+     * Claim an email to send again, by moving its next attempt to the end of the lease of the claiming instance. It is
+     * only claimed if its next attempt is still the one read, so that two instances never claim the same email.
+     *
+     * @return 1 if the email is claimed, 0 if another instance claimed it first.
+     */
+    @Modifying
+    @Transactional
+    @Query("update OutgoingMail mail set mail.nextAttemptDate = ?3 where mail.id = ?1 and mail.nextAttemptDate = ?2")
+    int claim(Long id, Instant nextAttemptDate, Instant leaseEnd);
+
+    /**
+     * Delete the emails given up on before a date, after too many attempts.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from OutgoingMail mail where mail.attempts >= ?1 and mail.nextAttemptDate < ?2")
+    int deleteGivenUpBefore(int maxAttempts, Instant date);
+
+    long countByAttemptsLessThan(int maxAttempts);
+}
@@ -4,6 +4,7 @@ import com.treasure.notes.domain.User;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
@@ -15,6 +16,10 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    String USERS_BY_LOGIN_CACHE = "usersByLogin";
+
+    String USERS_BY_EMAIL_CACHE = "usersByEmail";
+
     Optional<User> findOneByActivationKey(String activationKey);
 
     List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
@@ -26,10 +31,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
+    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE)
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
+    /**
+     * Cached by the lower case email, as the emails are stored and evicted, whatever the case of the given email.
+     */
     @EntityGraph(attributePaths = "authorities")
+    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, key = "#p0.toLowerCase()")
     Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
+    /**
+     * Not cached, unlike {@link #findOneWithAuthoritiesByLogin(String)}: the users logging in are only kept for the
+     * short time to live of the {@link com.treasure.notes.security.DomainUserDetailsService#USER_DETAILS_CACHE}.
+     */
+    @EntityGraph(attributePaths = "authorities")
+    Optional<User> findOneForAuthenticationByLogin(String login);
+
+    /**
+     * Not cached, see {@link #findOneForAuthenticationByLogin(String)}.
+     */
+    @EntityGraph(attributePaths = "authorities")
+    Optional<User> findOneForAuthenticationByEmailIgnoreCase(String email);
+
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
 }
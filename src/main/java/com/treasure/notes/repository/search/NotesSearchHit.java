@@ -0,0 +1,36 @@
+package com.treasure.notes.repository.search;
+
+/**
+ * A note matching a full-text search, with its relevance and the highlighted passages of its content.
+ */
+public final class NotesSearchHit {
+
+    private final Long id;
+
+    private final float score;
+
+    private final String highlight;
+
+    public NotesSearchHit(Long id, float score, String highlight) {
+        this.id = id;
+        this.score = score;
+        this.highlight = highlight;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public String getHighlight() {
+        return highlight;
+    }
+
+    @Override
+    public String toString() {
+        return "NotesSearchHit{" + "id=" + id + ", score=" + score + ", highlight='" + highlight + "'" + "}";
+    }
+}
@@ -0,0 +1,394 @@
+package com.treasure.notes.repository.search;
+
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.domain.Notes;
+import com.treasure.notes.domain.Notes_;
+import com.treasure.notes.repository.NotesRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * Full-text index of the {@link Notes} content, stored in an embedded Lucene index.
+ * <p>
+ * The index is kept up to date by {@link com.treasure.notes.service.NotesService}, and can be rebuilt from the
+ * database on startup. Results are ranked by relevance (BM25) and only hold the notes of one user.
+ * <p>
+ * Within a transaction, the changes to the index are queued and only applied once it is committed, with a single
+ * refresh of the searcher: a rolled back write never reaches the index. The notes written in bulk are only queued by
+ * id, and read again from the database in batches once committed.
+ * <p>
+ * The changes are made durable in the index directory every {@code application.search.commit-interval-millis}, and
+ * when the application stops: those made since the last commit are lost on a crash, until the index is rebuilt.
+ */
+@Repository
+public class NotesSearchRepository {
+
+    private static final String ID_FIELD = "id";
+
+    private static final String USER_ID_FIELD = "userId";
+
+    private static final String CONTENT_FIELD = "content";
+
+    private static final int REINDEX_BATCH_SIZE = 500;
+
+    private static final int MAX_PASSAGES = 3;
+
+    private final Logger log = LoggerFactory.getLogger(NotesSearchRepository.class);
+
+    private final NotesRepository notesRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final Directory directory;
+
+    private final IndexWriter indexWriter;
+
+    private final SearcherManager searcherManager;
+
+    public NotesSearchRepository(NotesRepository notesRepository, ApplicationProperties applicationProperties) {
+        this.notesRepository = notesRepository;
+        this.applicationProperties = applicationProperties;
+        String indexDirectory = applicationProperties.getSearch().getIndexDirectory();
+        try {
+            directory = StringUtils.hasText(indexDirectory) ? FSDirectory.open(Paths.get(indexDirectory)) : new ByteBuffersDirectory();
+            indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            searcherManager = new SearcherManager(indexWriter, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the notes search index", e);
+        }
+    }
+
+    /**
+     * Index a note, replacing the previous version of this note if any.
+     *
+     * @param notes the note to index.
+     */
+    public void save(Notes notes) {
+        saveAll(List.of(notes));
+    }
+
+    /**
+     * Index several notes, the new index being visible to searches once they are all indexed.
+     *
+     * @param notes the notes to index.
+     */
+    public void saveAll(Collection<Notes> notes) {
+        Map<Long, Document> changes = new LinkedHashMap<>();
+        for (Notes note : notes) {
+            changes.put(note.getId(), toDocument(note));
+        }
+        applyAfterCommit(changes);
+    }
+
+    /**
+     * Index several notes once the current transaction is committed, reading them from the database in batches: only
+     * their ids are kept until then, so that any number of notes can be written by one transaction.
+     *
+     * @param ids the ids of the notes to index.
+     */
+    public void saveAllById(Collection<Long> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(Map.of(), ids);
+            return;
+        }
+        PendingChanges pendingChanges = pendingChanges();
+        pendingChanges.changes.keySet().removeAll(ids);
+        pendingChanges.idsToRead.addAll(ids);
+    }
+
+    /**
+     * Remove a note from the index.
+     *
+     * @param id the id of the note.
+     */
+    public void deleteById(Long id) {
+        deleteAllById(List.of(id));
+    }
+
+    /**
+     * Remove several notes from the index.
+     *
+     * @param ids the ids of the notes.
+     */
+    public void deleteAllById(Collection<Long> ids) {
+        Map<Long, Document> changes = new LinkedHashMap<>();
+        for (Long id : ids) {
+            changes.put(id, null);
+        }
+        applyAfterCommit(changes);
+    }
+
+    /**
+     * Queue the changes until the current transaction is committed, or apply them right away outside of a
+     * transaction.
+     *
+     * @param changes the documents to index by note id, {@code null} to remove the note from the index.
+     */
+    private void applyAfterCommit(Map<Long, Document> changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(changes, Set.of());
+            return;
+        }
+        PendingChanges pendingChanges = pendingChanges();
+        pendingChanges.idsToRead.removeAll(changes.keySet());
+        pendingChanges.changes.putAll(changes);
+    }
+
+    private PendingChanges pendingChanges() {
+        PendingChanges pendingChanges = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pendingChanges == null) {
+            pendingChanges = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pendingChanges);
+            TransactionSynchronizationManager.registerSynchronization(pendingChanges);
+        }
+        return pendingChanges;
+    }
+
+    /**
+     * Apply the changes, then index the notes to read from the database a batch at a time, and refresh the searcher.
+     */
+    private void apply(Map<Long, Document> changes, Collection<Long> idsToRead) {
+        try {
+            write(changes);
+            List<Long> batch = new ArrayList<>(REINDEX_BATCH_SIZE);
+            for (Long id : idsToRead) {
+                batch.add(id);
+                if (batch.size() == REINDEX_BATCH_SIZE) {
+                    write(readDocuments(batch));
+                    batch.clear();
+                }
+            }
+            write(readDocuments(batch));
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not update the notes search index", e);
+        }
+    }
+
+    private void write(Map<Long, Document> changes) throws IOException {
+        for (Map.Entry<Long, Document> change : changes.entrySet()) {
+            Term idTerm = new Term(ID_FIELD, change.getKey().toString());
+            if (change.getValue() == null) {
+                indexWriter.deleteDocuments(idTerm);
+            } else {
+                indexWriter.updateDocument(idTerm, change.getValue());
+            }
+        }
+    }
+
+    /**
+     * The documents of notes read from the database, {@code null} for those deleted since.
+     */
+    private Map<Long, Document> readDocuments(List<Long> ids) {
+        Map<Long, Document> documents = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return documents;
+        }
+        ids.forEach(id -> documents.put(id, null));
+        for (NotesRepository.IndexedNotes notes : notesRepository.findIndexedByIdIn(ids)) {
+            documents.put(notes.getId(), toDocument(notes.getId(), notes.getUserId(), notes.getContent()));
+        }
+        return documents;
+    }
+
+    /**
+     * Search the notes of a user, the most relevant first.
+     * <p>
+     * The query uses the {@link SimpleQueryParser} syntax ({@code +}, {@code |}, {@code -}, {@code "phrase"},
+     * {@code prefix*}), all the terms being required by default, so that any user input is a valid query.
+     *
+     * @param query the text to search.
+     * @param userId the id of the owner of the notes.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the matching notes, with their highlighted passages.
+     */
+    public Page<NotesSearchHit> search(String query, Long userId, Pageable pageable) {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, CONTENT_FIELD);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query scopedQuery = new BooleanQuery.Builder()
+            .add(parser.parse(query), BooleanClause.Occur.MUST)
+            .add(LongPoint.newExactQuery(USER_ID_FIELD, userId), BooleanClause.Occur.FILTER)
+            .build();
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int limit = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+                TopDocs topDocs = searcher.search(scopedQuery, limit);
+                int from = (int) Math.min(pageable.getOffset(), topDocs.scoreDocs.length);
+                ScoreDoc[] scoreDocs = Arrays.copyOfRange(topDocs.scoreDocs, from, topDocs.scoreDocs.length);
+                String[] highlights = highlight(searcher, scopedQuery, new TopDocs(topDocs.totalHits, scoreDocs));
+                List<NotesSearchHit> hits = new ArrayList<>(scoreDocs.length);
+                for (int i = 0; i < scoreDocs.length; i++) {
+                    Long id = Long.valueOf(searcher.doc(scoreDocs[i].doc).get(ID_FIELD));
+                    hits.add(new NotesSearchHit(id, scoreDocs[i].score, highlights[i]));
+                }
+                return new PageImpl<>(hits, pageable, searcher.count(scopedQuery));
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not search the notes", e);
+        }
+    }
+
+    /**
+     * Rebuild the whole index from the database.
+     * <p>
+     * Each note replaces the document with its id, as the notes saved meanwhile are indexed as well: a note is never
+     * indexed twice.
+     */
+    public void reindexAll() {
+        log.debug("Rebuilding the notes search index");
+        try {
+            indexWriter.deleteAll();
+            long count = 0;
+            Long lastId = 0L;
+            Slice<Notes> slice;
+            do {
+                Long afterId = lastId;
+                slice =
+                    notesRepository.findSlice(
+                        (root, query, builder) -> builder.greaterThan(root.get(Notes_.id), afterId),
+                        PageRequest.of(0, REINDEX_BATCH_SIZE, Sort.by(Notes_.ID))
+                    );
+                for (Notes notes : slice) {
+                    indexWriter.updateDocument(new Term(ID_FIELD, notes.getId().toString()), toDocument(notes));
+                    lastId = notes.getId();
+                    count++;
+                }
+            } while (slice.hasNext());
+            indexWriter.commit();
+            searcherManager.maybeRefreshBlocking();
+            log.info("Indexed {} notes", count);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rebuild the notes search index", e);
+        }
+    }
+
+    /**
+     * Commit the changes made to the index since the last commit, if any.
+     */
+    @Scheduled(
+        initialDelayString = "${application.search.commit-interval-millis:60000}",
+        fixedDelayString = "${application.search.commit-interval-millis:60000}"
+    )
+    public void commit() {
+        if (!indexWriter.hasUncommittedChanges()) {
+            return;
+        }
+        try {
+            indexWriter.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not commit the notes search index", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (applicationProperties.getSearch().isRebuildOnStartup()) {
+            reindexAll();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    /**
+     * The changes to the index made during a transaction, the last one of each note winning.
+     */
+    private class PendingChanges implements TransactionSynchronization {
+
+        private final Map<Long, Document> changes = new LinkedHashMap<>();
+
+        private final Set<Long> idsToRead = new LinkedHashSet<>();
+
+        @Override
+        public void afterCommit() {
+            try {
+                apply(changes, idsToRead);
+            } catch (UncheckedIOException e) {
+                // The notes are committed anyway, the index is repaired by its next rebuild
+                log.error("Could not update the notes search index after commit", e);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(NotesSearchRepository.this);
+        }
+    }
+
+    private String[] highlight(IndexSearcher searcher, Query query, TopDocs topDocs) throws IOException {
+        UnifiedHighlighter highlighter = new UnifiedHighlighter(searcher, analyzer);
+        highlighter.setFormatter(new DefaultPassageFormatter("<em>", "</em>", "... ", true));
+        return highlighter.highlight(CONTENT_FIELD, query, topDocs, MAX_PASSAGES);
+    }
+
+    private Document toDocument(Notes notes) {
+        return toDocument(notes.getId(), notes.getUser() != null ? notes.getUser().getId() : null, notes.getContent());
+    }
+
+    private Document toDocument(Long id, Long userId, String content) {
+        Document document = new Document();
+        document.add(new StringField(ID_FIELD, id.toString(), Field.Store.YES));
+        if (userId != null) {
+            document.add(new LongPoint(USER_ID_FIELD, userId));
+        }
+        document.add(new TextField(CONTENT_FIELD, content, Field.Store.YES));
+        return document;
+    }
+}
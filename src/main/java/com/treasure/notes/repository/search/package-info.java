@@ -0,0 +1,4 @@
+/**
+ * Full-text search repositories.
+ */
+package com.treasure.notes.repository.search;
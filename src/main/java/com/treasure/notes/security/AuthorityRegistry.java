@@ -0,0 +1,124 @@
+package com.treasure.notes.security;
+
+import com.treasure.notes.domain.Authority;
+import com.treasure.notes.repository.AuthorityRepository;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry of the known authorities, holding one shared {@link GrantedAuthority} per authority.
+ * <p>
+ * The authorities are loaded from the database when the application is ready, and again on {@link #refresh()}.
+ * Names which are not in the registry, for example of an authority removed after a JWT was issued, still resolve
+ * to a new {@link SimpleGrantedAuthority}.
+ */
+@Component
+public class AuthorityRegistry {
+
+    private final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private final AuthorityRepository authorityRepository;
+
+    private volatile Snapshot snapshot;
+
+    public AuthorityRegistry(AuthorityRepository authorityRepository) {
+        this.authorityRepository = authorityRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        Snapshot loaded = new Snapshot(authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList()));
+        log.debug("Loaded authorities {}", loaded.names);
+        snapshot = loaded;
+    }
+
+    /**
+     * Get the names of all authorities, sorted.
+     *
+     * @return an immutable list of the authority names.
+     */
+    public List<String> getAuthorityNames() {
+        return snapshot().names;
+    }
+
+    /**
+     * Get the granted authority of the given name.
+     *
+     * @param name the authority name.
+     * @return the shared instance for a known authority, a new one otherwise.
+     */
+    public GrantedAuthority getGrantedAuthority(String name) {
+        GrantedAuthority grantedAuthority = snapshot().grantedAuthorities.get(name);
+        return grantedAuthority != null ? grantedAuthority : new SimpleGrantedAuthority(name);
+    }
+
+    /**
+     * Get the granted authorities of a comma-separated list of names, as stored in the JWT {@code auth} claim.
+     * <p>
+     * The list is kept and shared when all its names are known authorities.
+     *
+     * @param authorityNames the comma-separated authority names, blank names are skipped.
+     * @return an immutable list of granted authorities.
+     */
+    public List<GrantedAuthority> getGrantedAuthorities(String authorityNames) {
+        Snapshot current = snapshot();
+        List<GrantedAuthority> grantedAuthorities = current.grantedAuthoritiesByNames.get(authorityNames);
+        if (grantedAuthorities != null) {
+            return grantedAuthorities;
+        }
+        boolean allKnown = true;
+        List<GrantedAuthority> resolved = new ArrayList<>();
+        for (String name : authorityNames.split(",")) {
+            if (name.trim().isEmpty()) {
+                continue;
+            }
+            GrantedAuthority grantedAuthority = current.grantedAuthorities.get(name);
+            if (grantedAuthority == null) {
+                allKnown = false;
+                grantedAuthority = new SimpleGrantedAuthority(name);
+            }
+            resolved.add(grantedAuthority);
+        }
+        grantedAuthorities = Collections.unmodifiableList(resolved);
+        if (allKnown) {
+            current.grantedAuthoritiesByNames.putIfAbsent(authorityNames, grantedAuthorities);
+        }
+        return grantedAuthorities;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // Used before the application is ready
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+
+        private final List<String> names;
+
+        private final Map<String, GrantedAuthority> grantedAuthorities;
+
+        // Only holds lists of known names, so it is bounded by the combinations of authorities actually granted
+        private final ConcurrentMap<String, List<GrantedAuthority>> grantedAuthoritiesByNames = new ConcurrentHashMap<>();
+
+        private Snapshot(Collection<String> authorityNames) {
+            SortedMap<String, GrantedAuthority> byName = new TreeMap<>();
+            authorityNames.forEach(name -> byName.put(name, new SimpleGrantedAuthority(name)));
+            this.names = Collections.unmodifiableList(new ArrayList<>(byName.keySet()));
+            this.grantedAuthorities = Collections.unmodifiableMap(byName);
+        }
+    }
+}
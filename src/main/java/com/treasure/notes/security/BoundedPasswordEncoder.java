@@ -0,0 +1,155 @@
+package com.treasure.notes.security;
+
+import com.treasure.notes.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hashes and checks the passwords with BCrypt on a bounded pool of threads.
+ * <p>
+ * BCrypt is slow on purpose, so a storm of logins or registrations would otherwise take all the CPU of the request
+ * threads. Here, at most {@code threads} passwords are hashed at once, and at most {@code queueCapacity} wait for
+ * their turn: the others fail right away with a {@link PasswordHashingRejectedException}, answered with 503 Service
+ * Unavailable. The calling thread waits for its hashing without using the CPU.
+ * <p>
+ * {@link #upgradeEncoding(String)} tells the passwords hashed with fewer rounds than the configured strength, so that
+ * the {@link DomainUserDetailsService} hashes them again when their user logs in.
+ * <p>
+ * It is a component rather than a bean of the {@code SecurityConfiguration}: as a {@link MeterBinder}, it is created
+ * with the meter registry, which the security configuration depends on.
+ */
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The meters, created before the registry of the application is bound.
+     */
+    private final CompositeMeterRegistry meterRegistry = new CompositeMeterRegistry();
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public BoundedPasswordEncoder(ApplicationProperties applicationProperties) {
+        this(applicationProperties.getSecurity().getPasswordHashing());
+    }
+
+    BoundedPasswordEncoder(ApplicationProperties.Security.PasswordHashing properties) {
+        this(
+            new BCryptPasswordEncoder(properties.getStrength()),
+            properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors(),
+            properties.getQueueCapacity()
+        );
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hashing-");
+        threadFactory.setDaemon(true);
+        this.executor =
+            new ThreadPoolExecutor(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy()
+            );
+
+        Gauge.builder("security.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Passwords being hashed")
+            .register(meterRegistry);
+        Gauge.builder("security.password.hashing.queued", executor, e -> e.getQueue().size())
+            .description("Passwords waiting to be hashed")
+            .register(meterRegistry);
+        encodeTimer = hashingTimer("encode");
+        matchesTimer = hashingTimer("matches");
+        rejectedCounter =
+            Counter.builder("security.password.hashing.rejected")
+                .description("Passwords not hashed, too many were waiting")
+                .register(meterRegistry);
+    }
+
+    private Timer hashingTimer(String operation) {
+        return Timer.builder("security.password.hashing")
+            .description("Hashing of a password, waiting for a thread included")
+            .tag("operation", operation)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry.add(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only reads the rounds of the hash
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Timer timer, Callable<T> hashing) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(hashing);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException("Too many passwords are waiting to be hashed");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -7,9 +7,11 @@ import java.util.stream.Collectors;
 import org.hibernate.validator.internal.constraintvalidators.hv.EmailValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
@@ -17,16 +19,44 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Authenticate a user from the database.
+ * <p>
+ * When a user logs in with a password hashed with fewer rounds than configured, the
+ * {@link org.springframework.security.authentication.dao.DaoAuthenticationProvider} hashes it again and stores it with
+ * {@link #updatePassword(UserDetails, String)}.
+ * <p>
+ * The users are kept in the {@link #USER_DETAILS_CACHE}, so that clients authenticating again and again don't each
+ * look their user up with its authorities.
  */
 @Component("userDetailsService")
-public class DomainUserDetailsService implements UserDetailsService {
+public class DomainUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    /**
+     * The users authenticated lately, by lower case login or email. The {@link com.treasure.notes.service.UserService}
+     * evicts a user when changing it, the short time to live of the cache bounds the staleness of the other changes: the
+     * users missing from it are read from the database, not from the longer lived caches of the {@link UserRepository}.
+     */
+    public static final String USER_DETAILS_CACHE = "userDetails";
 
     private final Logger log = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final AuthorityRegistry authorityRegistry;
+
+    private final CacheManager cacheManager;
+
+    private final UserCacheEvictor userCacheEvictor;
+
+    public DomainUserDetailsService(
+        UserRepository userRepository,
+        AuthorityRegistry authorityRegistry,
+        CacheManager cacheManager,
+        UserCacheEvictor userCacheEvictor
+    ) {
         this.userRepository = userRepository;
+        this.authorityRegistry = authorityRegistry;
+        this.cacheManager = cacheManager;
+        this.userCacheEvictor = userCacheEvictor;
     }
 
     @Override
@@ -34,29 +64,55 @@ public class DomainUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(final String login) {
         log.debug("Authenticating {}", login);
 
+        String key = login.toLowerCase(Locale.ENGLISH);
+        Cache userDetailsCache = Objects.requireNonNull(cacheManager.getCache(USER_DETAILS_CACHE));
+        AuthenticatedUser userDetails = userDetailsCache.get(key, AuthenticatedUser.class);
+        if (userDetails == null) {
+            userDetails = findUser(login);
+            userDetailsCache.put(key, userDetails);
+        }
+        // A copy, as the password of the authenticated user is erased once checked
+        return new AuthenticatedUser(userDetails.getId(), userDetails.getUsername(), userDetails.getPassword(), userDetails.getAuthorities());
+    }
+
+    private AuthenticatedUser findUser(String login) {
         if (new EmailValidator().isValid(login, null)) {
             return userRepository
-                .findOneWithAuthoritiesByEmailIgnoreCase(login)
+                .findOneForAuthenticationByEmailIgnoreCase(login.toLowerCase(Locale.ENGLISH))
                 .map(user -> createSpringSecurityUser(login, user))
                 .orElseThrow(() -> new UsernameNotFoundException("User with email " + login + " was not found in the database"));
         }
 
         String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
         return userRepository
-            .findOneWithAuthoritiesByLogin(lowercaseLogin)
+            .findOneForAuthenticationByLogin(lowercaseLogin)
             .map(user -> createSpringSecurityUser(lowercaseLogin, user))
             .orElseThrow(() -> new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database"));
     }
 
-    private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        log.debug("Hashing again the password of {}", userDetails.getUsername());
+        return userRepository
+            .findOneByLogin(userDetails.getUsername())
+            .map(user -> {
+                user.setPassword(newPassword);
+                userCacheEvictor.evict(user);
+                return (UserDetails) new AuthenticatedUser(user.getId(), user.getLogin(), newPassword, userDetails.getAuthorities());
+            })
+            .orElse(userDetails);
+    }
+
+    private AuthenticatedUser createSpringSecurityUser(String lowercaseLogin, User user) {
         if (!user.isActivated()) {
             throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
         }
         List<GrantedAuthority> grantedAuthorities = user
             .getAuthorities()
             .stream()
-            .map(authority -> new SimpleGrantedAuthority(authority.getName()))
+            .map(authority -> authorityRegistry.getGrantedAuthority(authority.getName()))
             .collect(Collectors.toList());
-        return new org.springframework.security.core.userdetails.User(user.getLogin(), user.getPassword(), grantedAuthorities);
+        return new AuthenticatedUser(user.getId(), user.getLogin(), user.getPassword(), grantedAuthorities);
     }
 }
@@ -0,0 +1,13 @@
+package com.treasure.notes.security;
+
+/**
+ * This exception is thrown when too many passwords are waiting to be hashed, see {@link BoundedPasswordEncoder}.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
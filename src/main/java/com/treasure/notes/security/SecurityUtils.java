@@ -37,6 +37,22 @@ public final class SecurityUtils {
         return null;
     }
 
+    /**
+     * Get the id of the current user.
+     * <p>
+     * The id is only known when the principal was built from a JWT carrying the user id claim,
+     * or from a login through {@link DomainUserDetailsService}.
+     *
+     * @return the id of the current user.
+     */
+    public static Optional<Long> getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return Optional.ofNullable(((AuthenticatedUser) authentication.getPrincipal()).getId());
+        }
+        return Optional.empty();
+    }
+
     /**
      * Get the JWT of the current user.
      *
@@ -0,0 +1,39 @@
+package com.treasure.notes.security;
+
+import com.treasure.notes.domain.User;
+import com.treasure.notes.repository.UserRepository;
+import java.util.Locale;
+import java.util.Objects;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts a user from the caches of the users, by login and by email, when it is changed.
+ * <p>
+ * The emails are stored in lower case, and both the {@link UserRepository#USERS_BY_EMAIL_CACHE} and the
+ * {@link DomainUserDetailsService#USER_DETAILS_CACHE} are keyed by the lower case email.
+ */
+@Component
+public class UserCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    public UserCacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Evict a user from the caches, once the current transaction is committed if any.
+     *
+     * @param user the user, with its login and email before the change.
+     */
+    public void evict(User user) {
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
+        Objects.requireNonNull(cacheManager.getCache(DomainUserDetailsService.USER_DETAILS_CACHE)).evict(user.getLogin());
+        if (user.getEmail() != null) {
+            String email = user.getEmail().toLowerCase(Locale.ENGLISH);
+            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(email);
+            Objects.requireNonNull(cacheManager.getCache(DomainUserDetailsService.USER_DETAILS_CACHE)).evict(email);
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package com.treasure.notes.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.security.AuthenticatedUser;
+import com.treasure.notes.security.AuthorityRegistry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import tech.jhipster.config.JHipsterProperties;
@@ -25,6 +33,8 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    private static final String USER_ID_KEY = "uid";
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -33,7 +43,17 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    private final Cache<String, VerifiedToken> authenticationCache;
+
+    private final AuthorityRegistry authorityRegistry;
+
+    @Autowired
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        AuthorityRegistry authorityRegistry
+    ) {
+        this.authorityRegistry = authorityRegistry;
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -51,6 +71,17 @@ public class TokenProvider {
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+        ApplicationProperties.Security.AuthenticationCache cacheProperties = applicationProperties.getSecurity().getAuthenticationCache();
+        if (cacheProperties.isEnabled()) {
+            this.authenticationCache =
+                Caffeine
+                    .newBuilder()
+                    .maximumSize(cacheProperties.getMaxEntries())
+                    .expireAfter(new VerifiedTokenExpiry(TimeUnit.SECONDS.toNanos(cacheProperties.getTimeToLiveSeconds())))
+                    .build();
+        } else {
+            this.authenticationCache = null;
+        }
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
@@ -64,37 +95,125 @@ public class TokenProvider {
             validity = new Date(now + this.tokenValidityInMilliseconds);
         }
 
-        return Jwts
-            .builder()
-            .setSubject(authentication.getName())
-            .claim(AUTHORITIES_KEY, authorities)
-            .signWith(key, SignatureAlgorithm.HS512)
-            .setExpiration(validity)
-            .compact();
+        JwtBuilder builder = Jwts.builder().setSubject(authentication.getName()).claim(AUTHORITIES_KEY, authorities);
+        if (authentication.getPrincipal() instanceof AuthenticatedUser) {
+            Long userId = ((AuthenticatedUser) authentication.getPrincipal()).getId();
+            if (userId != null) {
+                builder.claim(USER_ID_KEY, userId);
+            }
+        }
+        return builder.signWith(key, SignatureAlgorithm.HS512).setExpiration(validity).compact();
     }
 
     public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return createAuthentication(jwtParser.parseClaimsJws(token).getBody(), token);
+    }
+
+    /**
+     * Validate the token and build its {@link Authentication} with a single parse of the token.
+     * <p>
+     * Verified tokens are cached by digest until they expire, so a client sending the same token again
+     * does not pay for the signature verification and claims decoding.
+     *
+     * @param token the JWT.
+     * @return the authentication, or empty if the token is not valid.
+     */
+    public Optional<Authentication> resolveAuthentication(String token) {
+        if (authenticationCache == null) {
+            return parseClaims(token).map(claims -> createAuthentication(claims, token));
+        }
+        String digest = digest(token);
+        VerifiedToken verifiedToken = authenticationCache.getIfPresent(digest);
+        if (verifiedToken != null && verifiedToken.expiresAt > System.currentTimeMillis()) {
+            return Optional.of(verifiedToken.authentication);
+        }
+        return parseClaims(token)
+            .map(
+                claims -> {
+                    Authentication authentication = createAuthentication(claims, token);
+                    if (claims.getExpiration() != null) {
+                        authenticationCache.put(digest, new VerifiedToken(authentication, claims.getExpiration().getTime()));
+                    }
+                    return authentication;
+                }
+            );
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
+    private Authentication createAuthentication(Claims claims, String token) {
+        Collection<? extends GrantedAuthority> authorities = authorityRegistry.getGrantedAuthorities(claims.get(AUTHORITIES_KEY).toString());
 
-        User principal = new User(claims.getSubject(), "", authorities);
+        // Tokens issued before the user id claim was added carry no id, the user is then resolved by login
+        Number userId = claims.get(USER_ID_KEY, Number.class);
+        AuthenticatedUser principal = new AuthenticatedUser(
+            userId != null ? userId.longValue() : null,
+            claims.getSubject(),
+            "",
+            authorities
+        );
 
         return new UsernamePasswordAuthenticationToken(principal, token, authorities);
     }
 
     public boolean validateToken(String authToken) {
+        return parseClaims(authToken).isPresent();
+    }
+
+    private Optional<Claims> parseClaims(String authToken) {
         try {
-            jwtParser.parseClaimsJws(authToken);
-            return true;
+            return Optional.of(jwtParser.parseClaimsJws(authToken).getBody());
         } catch (JwtException | IllegalArgumentException e) {
             log.info("Invalid JWT token.");
             log.trace("Invalid JWT token trace.", e);
         }
-        return false;
+        return Optional.empty();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class VerifiedToken {
+
+        private final Authentication authentication;
+
+        private final long expiresAt;
+
+        private VerifiedToken(Authentication authentication, long expiresAt) {
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Evicts a verified token at the earliest of its own expiration and the configured time to live.
+     */
+    private static final class VerifiedTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        private final long timeToLiveNanos;
+
+        private VerifiedTokenExpiry(long timeToLiveNanos) {
+            this.timeToLiveNanos = timeToLiveNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long untilExpiration = TimeUnit.MILLISECONDS.toNanos(value.expiresAt - System.currentTimeMillis());
+            return Math.max(0, Math.min(timeToLiveNanos, untilExpiration));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,336 @@
+package com.treasure.notes.service;
+
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.domain.OutgoingMail;
+import com.treasure.notes.repository.OutgoingMailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Sends the emails of the {@link MailService}.
+ * <p>
+ * The emails are queued in memory, and a single thread sends them in batches: {@link JavaMailSender#send(MimeMessage...)}
+ * sends a batch over one SMTP connection, instead of one connection per email. The emails which could not be sent,
+ * and those beyond the capacity of the queue, are written to the {@link OutgoingMail} outbox, then sent again with an
+ * exponential backoff by {@link #retryOutbox()}. So are the emails still queued when the application stops.
+ * <p>
+ * Several instances share the outbox: each email to send again is first claimed by one of them, see
+ * {@link OutgoingMailRepository#claim}. The emails given up on lose their content, which holds the activation and reset
+ * keys, and are deleted after {@code application.mail.given-up-retention-days}.
+ */
+@Service
+public class MailDispatcher implements SmartLifecycle, MeterBinder {
+
+    private final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private static final long STOP_TIMEOUT_MILLIS = 10000;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * How long the emails claimed by an instance are not sent by another one, should it stop while sending them.
+     */
+    private static final Duration CLAIM_LEASE = Duration.ofMinutes(5);
+
+    private final JavaMailSender javaMailSender;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ApplicationProperties.Mail properties;
+
+    private final OutgoingMailRepository outgoingMailRepository;
+
+    private final BlockingQueue<OutgoingMail> queue;
+
+    private final AtomicLong outboxSize = new AtomicLong();
+
+    /**
+     * The meters, created before the registry of the application is bound.
+     */
+    private final CompositeMeterRegistry meterRegistry = new CompositeMeterRegistry();
+
+    private final Timer batchTimer;
+
+    private final Counter sentCounter;
+
+    private final Counter failedCounter;
+
+    private final Counter overflowCounter;
+
+    private volatile Thread sender;
+
+    public MailDispatcher(
+        JavaMailSender javaMailSender,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        OutgoingMailRepository outgoingMailRepository
+    ) {
+        this.javaMailSender = javaMailSender;
+        this.jHipsterProperties = jHipsterProperties;
+        this.properties = applicationProperties.getMail();
+        this.outgoingMailRepository = outgoingMailRepository;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        Gauge.builder("mail.queue.depth", queue, Collection::size).description("Emails waiting to be sent").register(meterRegistry);
+        Gauge.builder("mail.outbox.size", outboxSize, AtomicLong::get)
+            .description("Emails to send again in the outbox, at its last look-up")
+            .register(meterRegistry);
+        batchTimer = Timer.builder("mail.send").description("Sending of a batch of emails over one SMTP connection").register(meterRegistry);
+        sentCounter = mailCounter("sent");
+        failedCounter = mailCounter("failed");
+        overflowCounter = mailCounter("overflow");
+    }
+
+    private Counter mailCounter(String result) {
+        return Counter.builder("mail.messages").tag("result", result).register(meterRegistry);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry.add(registry);
+    }
+
+    /**
+     * Queue an email, or write it to the outbox when the queue is full.
+     */
+    public void enqueue(OutgoingMail mail) {
+        if (!queue.offer(mail)) {
+            log.debug("The mail queue is full, keeping the email to '{}' in the outbox", mail.getRecipient());
+            overflowCounter.increment();
+            mail.setNextAttemptDate(Instant.now());
+            outgoingMailRepository.save(mail);
+        }
+    }
+
+    /**
+     * Send the queued emails on the calling thread.
+     */
+    void flush() {
+        List<OutgoingMail> batch = new ArrayList<>();
+        while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            send(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Send again the emails of the outbox whose next attempt is due, a batch at a time, then delete those given up on
+     * for too long.
+     */
+    @Scheduled(
+        initialDelayString = "${application.mail.retry-interval-millis:10000}",
+        fixedDelayString = "${application.mail.retry-interval-millis:10000}"
+    )
+    public void retryOutbox() {
+        List<OutgoingMail> due;
+        int sent;
+        do {
+            due = outgoingMailRepository.findDue(properties.getMaxAttempts(), Instant.now(), PageRequest.of(0, properties.getBatchSize()));
+            List<OutgoingMail> claimed = claim(due);
+            sent = claimed.isEmpty() ? 0 : send(claimed);
+            // A batch which failed as a whole, when the SMTP server is down, is only sent again once due
+        } while (due.size() == properties.getBatchSize() && sent > 0);
+        int deleted = outgoingMailRepository.deleteGivenUpBefore(
+            properties.getMaxAttempts(),
+            Instant.now().minus(Duration.ofDays(properties.getGivenUpRetentionDays()))
+        );
+        if (deleted > 0) {
+            log.debug("Deleted {} emails given up on from the outbox", deleted);
+        }
+        outboxSize.set(outgoingMailRepository.countByAttemptsLessThan(properties.getMaxAttempts()));
+    }
+
+    /**
+     * Claim the due emails for this instance, those claimed by another instance since they were read being skipped.
+     */
+    private List<OutgoingMail> claim(List<OutgoingMail> due) {
+        Instant leaseEnd = Instant.now().plus(CLAIM_LEASE);
+        List<OutgoingMail> claimed = new ArrayList<>(due.size());
+        for (OutgoingMail mail : due) {
+            if (outgoingMailRepository.claim(mail.getId(), mail.getNextAttemptDate(), leaseEnd) == 1) {
+                mail.setNextAttemptDate(leaseEnd);
+                claimed.add(mail);
+            }
+        }
+        return claimed;
+    }
+
+    private void run() {
+        List<OutgoingMail> batch = new ArrayList<>();
+        while (sender == Thread.currentThread()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error(
+                    "Emails to {} could not be sent nor kept in the outbox",
+                    batch.stream().map(OutgoingMail::getRecipient).collect(Collectors.toList()),
+                    e
+                );
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Send a batch of emails over one connection, delete those sent from the outbox and keep the others there.
+     *
+     * @return the number of emails sent.
+     */
+    private int send(List<OutgoingMail> batch) {
+        Map<MimeMessage, OutgoingMail> messages = new LinkedHashMap<>();
+        List<OutgoingMail> failed = new ArrayList<>();
+        for (OutgoingMail mail : batch) {
+            try {
+                messages.put(createMimeMessage(mail), mail);
+            } catch (MessagingException e) {
+                fail(mail, e);
+                failed.add(mail);
+            }
+        }
+        Map<Object, Exception> failures = Map.of();
+        if (!messages.isEmpty()) {
+            long start = System.nanoTime();
+            try {
+                javaMailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failures = CollectionUtils.isEmpty(e.getFailedMessages()) ? allFailed(messages.keySet(), e) : e.getFailedMessages();
+            } catch (MailException e) {
+                failures = allFailed(messages.keySet(), e);
+            } finally {
+                batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        List<OutgoingMail> sent = new ArrayList<>();
+        for (Map.Entry<MimeMessage, OutgoingMail> message : messages.entrySet()) {
+            Exception failure = failures.get(message.getKey());
+            if (failure == null) {
+                sent.add(message.getValue());
+            } else {
+                fail(message.getValue(), failure);
+                failed.add(message.getValue());
+            }
+        }
+        sentCounter.increment(sent.size());
+        failedCounter.increment(failed.size());
+        log.debug("Sent {} emails, {} failed", sent.size(), failed.size());
+
+        List<OutgoingMail> sentFromOutbox = sent.stream().filter(mail -> mail.getId() != null).collect(Collectors.toList());
+        if (!sentFromOutbox.isEmpty()) {
+            outgoingMailRepository.deleteInBatch(sentFromOutbox);
+        }
+        if (!failed.isEmpty()) {
+            outgoingMailRepository.saveAll(failed);
+        }
+        return sent.size();
+    }
+
+    private static Map<Object, Exception> allFailed(Collection<MimeMessage> messages, Exception e) {
+        Map<Object, Exception> failures = new LinkedHashMap<>();
+        messages.forEach(message -> failures.put(message, e));
+        return failures;
+    }
+
+    private void fail(OutgoingMail mail, Exception e) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        String error = String.valueOf(e.getMessage());
+        mail.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        if (attempts >= properties.getMaxAttempts()) {
+            // The date it was given up on, the content is not kept as its keys are still valid
+            mail.setNextAttemptDate(Instant.now());
+            mail.setContent(null);
+            log.warn("Email could not be sent to user '{}' after {} attempts, giving up: {}", mail.getRecipient(), attempts, error);
+            return;
+        }
+        long delaySeconds = Math.min(
+            properties.getRetryMaxDelaySeconds(),
+            properties.getRetryInitialDelaySeconds() << Math.min(attempts - 1, 30)
+        );
+        mail.setNextAttemptDate(Instant.now().plus(Duration.ofSeconds(delaySeconds)));
+        log.warn("Email could not be sent to user '{}', trying again in {} seconds: {}", mail.getRecipient(), delaySeconds, error);
+    }
+
+    private MimeMessage createMimeMessage(OutgoingMail mail) throws MessagingException {
+        // Prepare message using a Spring helper
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, mail.isMultipart(), StandardCharsets.UTF_8.name());
+        message.setTo(mail.getRecipient());
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getContent(), mail.isHtml());
+        return mimeMessage;
+    }
+
+    @Override
+    public void start() {
+        Thread thread = new Thread(this::run, "mail-dispatcher");
+        thread.setDaemon(true);
+        sender = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        Thread thread = sender;
+        sender = null;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // The emails not sent yet are kept in the outbox, and sent once the application is started again
+        List<OutgoingMail> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        if (!unsent.isEmpty()) {
+            log.info("Keeping {} unsent emails in the outbox", unsent.size());
+            unsent.forEach(mail -> mail.setNextAttemptDate(Instant.now()));
+            outgoingMailRepository.saveAll(unsent);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return sender != null;
+    }
+}
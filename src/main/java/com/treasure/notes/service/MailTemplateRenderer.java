@@ -0,0 +1,188 @@
+package com.treasure.notes.service;
+
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.config.Constants;
+import com.treasure.notes.domain.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.unbescape.html.HtmlEscape;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Renders the mail templates.
+ * <p>
+ * A template is rendered once for each locale, with placeholders in place of the variables of the user, and split
+ * around them. Each email then only appends these fragments and the HTML-escaped variables of its user, as the
+ * template engine would have written them: the messages, the base URL and the markup are not resolved again. This
+ * requires the templates to only write the variables of the user, not to test them.
+ * <p>
+ * The emails are only written in the languages of {@code application.mail.languages}, so that the language key of
+ * the users, which they choose, does not add a rendered template for each value.
+ */
+@Service
+public class MailTemplateRenderer {
+
+    private final Logger log = LoggerFactory.getLogger(MailTemplateRenderer.class);
+
+    private static final String USER = "user";
+
+    private static final String BASE_URL = "baseUrl";
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("__mail_([a-z_]+)__");
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final boolean templateCache;
+
+    private final Set<String> languages;
+
+    /**
+     * The rendered templates by name and locale, a few templates in the supported languages.
+     */
+    private final Map<String, Map<Locale, RenderedTemplate>> renderedTemplates = new ConcurrentHashMap<>();
+
+    public MailTemplateRenderer(
+        SpringTemplateEngine templateEngine,
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        this.templateEngine = templateEngine;
+        this.jHipsterProperties = jHipsterProperties;
+        this.templateCache = applicationProperties.getMail().isTemplateCache();
+        this.languages = applicationProperties
+            .getMail()
+            .getLanguages()
+            .stream()
+            .map(language -> language.toLowerCase(Locale.ENGLISH))
+            .collect(Collectors.toSet());
+    }
+
+    public String render(String templateName, Locale userLocale, User user) {
+        Locale locale = supportedLocale(userLocale);
+        if (!templateCache) {
+            return process(templateName, locale, user);
+        }
+        RenderedTemplate template = renderedTemplates
+            .computeIfAbsent(templateName, name -> new ConcurrentHashMap<>())
+            .computeIfAbsent(locale, key -> renderTemplate(templateName, key));
+        for (UserVariable variable : template.variables) {
+            if (variable.getter.apply(user) == null) {
+                // Written differently by each expression of the template
+                return process(templateName, locale, user);
+            }
+        }
+        return template.render(user);
+    }
+
+    /**
+     * The locale of the language of the user if supported, otherwise the one of the default language.
+     */
+    private Locale supportedLocale(Locale locale) {
+        String language = locale.getLanguage();
+        return new Locale(languages.contains(language) ? language : Constants.DEFAULT_LANGUAGE);
+    }
+
+    private String process(String templateName, Locale locale, User user) {
+        Context context = new Context(locale);
+        context.setVariable(USER, user);
+        context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
+        return templateEngine.process(templateName, context);
+    }
+
+    private RenderedTemplate renderTemplate(String templateName, Locale locale) {
+        log.debug("Rendering mail template '{}' for locale '{}'", templateName, locale);
+        User placeholders = new User();
+        for (UserVariable variable : UserVariable.values()) {
+            variable.setter.accept(placeholders, variable.placeholder);
+        }
+        String content = process(templateName, locale, placeholders);
+
+        List<String> fragments = new ArrayList<>();
+        List<UserVariable> variables = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER.matcher(content);
+        int start = 0;
+        while (matcher.find()) {
+            fragments.add(content.substring(start, matcher.start()));
+            variables.add(UserVariable.of(matcher.group()));
+            start = matcher.end();
+        }
+        fragments.add(content.substring(start));
+        return new RenderedTemplate(fragments, variables);
+    }
+
+    /**
+     * The variables of the user written by the templates.
+     */
+    private enum UserVariable {
+        LOGIN(User::getLogin, User::setLogin),
+        ACTIVATION_KEY(User::getActivationKey, User::setActivationKey),
+        RESET_KEY(User::getResetKey, User::setResetKey);
+
+        private final Function<User, String> getter;
+
+        private final BiConsumer<User, String> setter;
+
+        /**
+         * Left unchanged by the HTML escaping and the link expressions, and by the lower case of the logins.
+         */
+        private final String placeholder;
+
+        UserVariable(Function<User, String> getter, BiConsumer<User, String> setter) {
+            this.getter = getter;
+            this.setter = setter;
+            this.placeholder = "__mail_" + name().toLowerCase(Locale.ENGLISH) + "__";
+        }
+
+        static UserVariable of(String placeholder) {
+            for (UserVariable variable : values()) {
+                if (variable.placeholder.equals(placeholder)) {
+                    return variable;
+                }
+            }
+            throw new IllegalStateException("Unknown mail template placeholder " + placeholder);
+        }
+    }
+
+    /**
+     * A template rendered for one locale: the fragments, around the variables of the user.
+     */
+    private static final class RenderedTemplate {
+
+        private final String[] fragments;
+
+        private final UserVariable[] variables;
+
+        private final int length;
+
+        private RenderedTemplate(List<String> fragments, List<UserVariable> variables) {
+            this.fragments = fragments.toArray(new String[0]);
+            this.variables = variables.toArray(new UserVariable[0]);
+            this.length = fragments.stream().mapToInt(String::length).sum();
+        }
+
+        private String render(User user) {
+            StringBuilder content = new StringBuilder(length + 64 * variables.length);
+            for (int i = 0; i < variables.length; i++) {
+                content.append(fragments[i]);
+                content.append(HtmlEscape.escapeHtml4Xml(variables[i].getter.apply(user)));
+            }
+            return content.append(fragments[variables.length]).toString();
+        }
+    }
+}
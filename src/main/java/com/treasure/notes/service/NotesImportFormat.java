@@ -0,0 +1,15 @@
+package com.treasure.notes.service;
+
+/**
+ * The formats of a notes import, see {@link NotesService#importAll}.
+ */
+public enum NotesImportFormat {
+    /**
+     * One JSON notes per line.
+     */
+    NDJSON,
+    /**
+     * Comma-separated values, with a header line naming a {@code content} column.
+     */
+    CSV,
+}
@@ -4,27 +4,52 @@ import com.treasure.notes.domain.Notes;
 import com.treasure.notes.domain.Notes_;
 import com.treasure.notes.domain.User_;
 import com.treasure.notes.repository.NotesRepository;
+import com.treasure.notes.security.SecurityUtils;
 import com.treasure.notes.service.criteria.NotesCriteria;
+import com.treasure.notes.service.dto.NotesCursor;
 import com.treasure.notes.service.dto.NotesDTO;
-import com.treasure.notes.service.mapper.NotesMapper;
+import com.treasure.notes.service.dto.UserDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.service.QueryService;
 import tech.jhipster.service.filter.LongFilter;
 
-import javax.persistence.criteria.JoinType;
+import java.util.Date;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 
 /**
  * Service for executing complex queries for {@link Notes} entities in the database.
  * The main input is a {@link NotesCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
  * It returns a {@link List} of {@link NotesDTO} or a {@link Page} of {@link NotesDTO} which fulfills the criteria.
+ * <p>
+ * The lists are read as projections of the columns of the DTO in one statement, without joining the owner: the notes
+ * are filtered on the current user, whose login comes from the authentication. No entity is loaded, so neither the
+ * owner nor dirty checking add statements or allocations.
  */
 @Service
 @Transactional(readOnly = true)
@@ -32,18 +57,24 @@ public class NotesQueryService extends QueryService<Notes> {
 
     private final Logger log = LoggerFactory.getLogger(NotesQueryService.class);
 
-    private final NotesRepository notesRepository;
+    private static final Sort CURSOR_SORT = Sort.by(Sort.Direction.DESC, Notes_.CREATED_DATE, Notes_.ID);
 
-    private final NotesMapper notesMapper;
+    private final NotesRepository notesRepository;
 
     private final UserService userService;
 
+    private final CacheManager cacheManager;
+
+    private final EntityManager entityManager;
+
     public NotesQueryService(NotesRepository notesRepository,
-                             NotesMapper notesMapper,
-                             UserService userService) {
+                             UserService userService,
+                             CacheManager cacheManager,
+                             EntityManager entityManager) {
         this.notesRepository = notesRepository;
-        this.notesMapper = notesMapper;
         this.userService = userService;
+        this.cacheManager = cacheManager;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -56,7 +87,7 @@ public class NotesQueryService extends QueryService<Notes> {
     public List<NotesDTO> findByCriteria(NotesCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
         final Specification<Notes> specification = createSpecification(criteria);
-        return notesMapper.toDto(notesRepository.findAll(specification));
+        return findProjections(specification, Pageable.unpaged(), 0);
     }
 
     /**
@@ -70,7 +101,67 @@ public class NotesQueryService extends QueryService<Notes> {
     public Page<NotesDTO> findByCriteria(NotesCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<Notes> specification = createSpecification(criteria);
-        return notesRepository.findAll(specification, page).map(notesMapper::toDto);
+        return findPage(specification, page);
+    }
+
+    /**
+     * Return a {@link Slice} of {@link NotesDTO} which matches the criteria from the database, without counting them.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page     The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<NotesDTO> findSliceByCriteria(NotesCriteria criteria, Pageable page) {
+        log.debug("find slice by criteria : {}, page: {}", criteria, page);
+        final Specification<Notes> specification = createSpecification(criteria);
+        return findSlice(specification, page);
+    }
+
+    /**
+     * Return a {@link Page} of {@link NotesDTO} which matches the criteria from the database, with a cached total.
+     * <p>
+     * When the criteria only filters on the current user, the total comes from the
+     * {@link NotesRepository#NOTES_COUNT_BY_USER_CACHE} cache, which is evicted when a note of this user is created
+     * or deleted. Otherwise the total is counted as in {@link #findByCriteria(NotesCriteria, Pageable)}.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page     The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<NotesDTO> findByCriteriaWithCachedCount(NotesCriteria criteria, Pageable page) {
+        log.debug("find by criteria with cached count : {}, page: {}", criteria, page);
+        final Specification<Notes> specification = createSpecification(criteria);
+        Optional<Long> userId = Optional.ofNullable(criteria.getUserId()).map(LongFilter::getEquals);
+        if (criteria.getId() != null || criteria.getContent() != null || userId.isEmpty()) {
+            return findPage(specification, page);
+        }
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(NotesRepository.NOTES_COUNT_BY_USER_CACHE));
+        Long total = cache.get(userId.get(), () -> notesRepository.count(specification));
+        Slice<NotesDTO> slice = findSlice(specification, page);
+        return new PageImpl<>(slice.getContent(), page, Objects.requireNonNull(total));
+    }
+
+    /**
+     * Return a {@link Slice} of {@link NotesDTO} which matches the criteria from the database, starting right after a cursor.
+     * <p>
+     * The entities are ordered by creation date then id, newest first, and the position is given by the cursor
+     * instead of an offset, so that every page costs the same. No count query is issued.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor   The position after which the slice starts, or {@code null} for the first slice.
+     * @param size     The maximum number of entities to return.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<NotesDTO> findByCriteria(NotesCriteria criteria, NotesCursor cursor, int size) {
+        log.debug("find by criteria : {}, cursor: {}, size: {}", criteria, cursor, size);
+        Specification<Notes> specification = createSpecification(criteria);
+        if (cursor != null) {
+            specification = specification.and(buildCursorSpecification(cursor));
+        }
+        return findSlice(specification, PageRequest.of(0, size, CURSOR_SORT));
     }
 
     /**
@@ -94,10 +185,12 @@ public class NotesQueryService extends QueryService<Notes> {
      */
     protected Specification<Notes> createSpecification(NotesCriteria criteria) {
         LongFilter userIdFilter = new LongFilter();
-        userService.getUser().ifPresent(user -> {
-            userIdFilter.setEquals(user.getId());
-            criteria.setUserId(userIdFilter);
-        });
+        userService
+            .getCurrentUserId()
+            .ifPresent(userId -> {
+                userIdFilter.setEquals(userId);
+                criteria.setUserId(userIdFilter);
+            });
         Specification<Notes> specification = Specification.where(null);
         if (criteria != null) {
             if (criteria.getId() != null) {
@@ -107,12 +200,99 @@ public class NotesQueryService extends QueryService<Notes> {
                 specification = specification.and(buildStringSpecification(criteria.getContent(), Notes_.content));
             }
             if (criteria.getUserId() != null) {
+                // Reading the id of the association compares notes.user_id directly, without joining jhi_user
                 specification =
                     specification.and(
-                        buildSpecification(criteria.getUserId(), root -> root.join(Notes_.user, JoinType.LEFT).get(User_.id))
+                        buildSpecification(criteria.getUserId(), root -> root.get(Notes_.user).get(User_.id))
                     );
             }
         }
         return specification;
     }
+
+    /**
+     * Read a page of projections, counting the matching notes only when the page doesn't tell the total.
+     */
+    private Page<NotesDTO> findPage(Specification<Notes> specification, Pageable page) {
+        List<NotesDTO> content = findProjections(specification, page, 0);
+        return PageableExecutionUtils.getPage(content, page, () -> notesRepository.count(specification));
+    }
+
+    /**
+     * Read a slice of projections, with one extra row to know if there is a next slice.
+     */
+    private Slice<NotesDTO> findSlice(Specification<Notes> specification, Pageable page) {
+        List<NotesDTO> content = findProjections(specification, page, 1);
+        boolean hasNext = content.size() > page.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, page.getPageSize()) : content, page, hasNext);
+    }
+
+    private List<NotesDTO> findProjections(Specification<Notes> specification, Pageable page, int extraRows) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Notes> root = query.from(Notes.class);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(
+            root.get(Notes_.id),
+            root.get(Notes_.content),
+            root.get(Notes_.createdDate),
+            root.get(Notes_.version),
+            root.get(Notes_.user).get(User_.id)
+        );
+        if (page.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(page.getSort(), root, builder));
+        }
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (page.isPaged()) {
+            typedQuery.setFirstResult((int) page.getOffset()).setMaxResults(page.getPageSize() + extraRows);
+        }
+        UserDTO currentUser = currentUser();
+        return typedQuery.getResultList().stream().map(tuple -> toDto(tuple, currentUser)).collect(Collectors.toList());
+    }
+
+    /**
+     * The current user, with its login as authenticated, or {@code null} if nobody is authenticated.
+     */
+    private UserDTO currentUser() {
+        Optional<Long> userId = userService.getCurrentUserId();
+        Optional<String> login = SecurityUtils.getCurrentUserLogin();
+        if (userId.isEmpty() || login.isEmpty()) {
+            return null;
+        }
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(userId.get());
+        userDTO.setLogin(login.get());
+        return userDTO;
+    }
+
+    private static NotesDTO toDto(Tuple tuple, UserDTO currentUser) {
+        NotesDTO notesDTO = new NotesDTO();
+        notesDTO.setId(tuple.get(0, Long.class));
+        notesDTO.setContent(tuple.get(1, String.class));
+        notesDTO.setCreatedDate(tuple.get(2, Date.class));
+        notesDTO.setVersion(tuple.get(3, Long.class));
+        Long userId = tuple.get(4, Long.class);
+        if (currentUser != null && currentUser.getId().equals(userId)) {
+            notesDTO.setUser(currentUser);
+        } else if (userId != null) {
+            UserDTO userDTO = new UserDTO();
+            userDTO.setId(userId);
+            notesDTO.setUser(userDTO);
+        }
+        return notesDTO;
+    }
+
+    private Specification<Notes> buildCursorSpecification(NotesCursor cursor) {
+        return (root, query, builder) ->
+            builder.or(
+                builder.lessThan(root.get(Notes_.createdDate), cursor.getCreatedDate()),
+                builder.and(
+                    builder.equal(root.get(Notes_.createdDate), cursor.getCreatedDate()),
+                    builder.lessThan(root.get(Notes_.id), cursor.getId())
+                )
+            );
+    }
 }
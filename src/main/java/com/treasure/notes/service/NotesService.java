@@ -1,7 +1,13 @@
 package com.treasure.notes.service;
 
+import com.treasure.notes.service.dto.NotesBatchResultDTO;
 import com.treasure.notes.service.dto.NotesDTO;
+import com.treasure.notes.service.dto.NotesImportResultDTO;
+import com.treasure.notes.service.dto.NotesSearchResultDTO;
+import java.io.Reader;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -18,10 +24,44 @@ public interface NotesService {
     NotesDTO save(NotesDTO notesDTO);
 
     /**
-     * Partially updates a notes.
+     * Update a notes of the current user.
      *
-     * @param notesDTO the entity to update partially.
-     * @return the persisted entity.
+     * @param notesDTO the entity to update, with the version it was read at if it must not have changed since.
+     * @return the persisted entity, or empty if the current user has no notes with this id.
+     * @throws NotesVersionMismatchException if the notes has another version than {@code notesDTO}.
+     */
+    Optional<NotesDTO> update(NotesDTO notesDTO);
+
+    /**
+     * Create or update several notes of the current user in one transaction.
+     * <p>
+     * Each item is validated on its own: an invalid item, or an update of a notes which is not found, is reported
+     * in its result and does not prevent the other items from being saved.
+     *
+     * @param notesDTOs the entities to save, without id to create them.
+     * @return the result of each item, in the same order.
+     */
+    List<NotesBatchResultDTO> saveAll(List<NotesDTO> notesDTOs);
+
+    /**
+     * Create notes of the current user from the records read, in one transaction.
+     * <p>
+     * The records are read and written one at a time, the ids and versions they hold being ignored. A record which
+     * cannot be read or is invalid is reported with its line and does not prevent the other records from being saved.
+     *
+     * @param reader the records to import.
+     * @param format the format of the records.
+     * @return the number of notes created and of rejected records, with the first of these.
+     * @throws java.io.UncheckedIOException if the records couldn't be read, nothing being imported then.
+     */
+    NotesImportResultDTO importAll(Reader reader, NotesImportFormat format);
+
+    /**
+     * Partially updates a notes of the current user.
+     *
+     * @param notesDTO the entity to update partially, with the version it was read at if it must not have changed since.
+     * @return the persisted entity, or empty if the current user has no notes with this id.
+     * @throws NotesVersionMismatchException if the notes has another version than {@code notesDTO}.
      */
     Optional<NotesDTO> partialUpdate(NotesDTO notesDTO);
 
@@ -33,6 +73,16 @@ public interface NotesService {
      */
     Page<NotesDTO> findAll(Pageable pageable);
 
+    /**
+     * Pass all the notes of the current user, oldest first, to the given action as they are read.
+     * <p>
+     * The notes are detached once passed, so that they are not all held in memory.
+     *
+     * @param action the action to perform on each notes.
+     * @return the number of notes.
+     */
+    long exportAll(Consumer<NotesDTO> action);
+
     /**
      * Get the "id" notes.
      *
@@ -47,4 +97,21 @@ public interface NotesService {
      * @param id the id of the entity.
      */
     void delete(Long id);
+
+    /**
+     * Delete several notes of the current user in one transaction.
+     *
+     * @param ids the ids of the entities.
+     * @return the result of each id, in the same order.
+     */
+    List<NotesBatchResultDTO> deleteAll(List<Long> ids);
+
+    /**
+     * Search for the notes of the current user corresponding to the query, the most relevant first.
+     *
+     * @param query the query of the search.
+     * @param pageable the pagination information.
+     * @return the list of entities, with their highlighted passages.
+     */
+    Page<NotesSearchResultDTO> search(String query, Pageable pageable);
 }
@@ -0,0 +1,10 @@
+package com.treasure.notes.service;
+
+public class NotesVersionMismatchException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public NotesVersionMismatchException() {
+        super("Notes was modified since the given version!");
+    }
+}
@@ -6,7 +6,9 @@ import com.treasure.notes.domain.User;
 import com.treasure.notes.repository.AuthorityRepository;
 import com.treasure.notes.repository.UserRepository;
 import com.treasure.notes.security.AuthoritiesConstants;
+import com.treasure.notes.security.AuthorityRegistry;
 import com.treasure.notes.security.SecurityUtils;
+import com.treasure.notes.security.UserCacheEvictor;
 import com.treasure.notes.service.dto.AdminUserDTO;
 import com.treasure.notes.service.dto.UserDTO;
 import com.treasure.notes.service.mapper.UserMapper;
@@ -18,6 +20,8 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import tech.jhipster.security.RandomUtil;
 
 import java.time.Instant;
@@ -37,6 +41,8 @@ public class UserService {
 
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
+    private static final String CURRENT_USER_ATTRIBUTE = UserService.class.getName() + ".CURRENT_USER";
+
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
@@ -45,14 +51,22 @@ public class UserService {
 
     private final UserMapper userMapper;
 
+    private final UserCacheEvictor userCacheEvictor;
+
+    private final AuthorityRegistry authorityRegistry;
+
     public UserService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
                        AuthorityRepository authorityRepository,
-                       UserMapper userMapper) {
+                       UserMapper userMapper,
+                       UserCacheEvictor userCacheEvictor,
+                       AuthorityRegistry authorityRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
         this.userMapper = userMapper;
+        this.userCacheEvictor = userCacheEvictor;
+        this.authorityRegistry = authorityRegistry;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -64,6 +78,7 @@ public class UserService {
                     // activate given user for the registration key.
                     user.setActivated(true);
                     user.setActivationKey(null);
+                    this.clearUserCaches(user);
                     log.debug("Activated user: {}", user);
                     return user;
                 }
@@ -80,6 +95,7 @@ public class UserService {
                     user.setPassword(passwordEncoder.encode(newPassword));
                     user.setResetKey(null);
                     user.setResetDate(null);
+                    this.clearUserCaches(user);
                     return user;
                 }
             );
@@ -93,6 +109,7 @@ public class UserService {
                 user -> {
                     user.setResetKey(RandomUtil.generateResetKey());
                     user.setResetDate(Instant.now());
+                    this.clearUserCaches(user);
                     return user;
                 }
             );
@@ -139,6 +156,7 @@ public class UserService {
         authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
+        this.clearUserCaches(newUser);
         log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
@@ -149,6 +167,7 @@ public class UserService {
         }
         userRepository.delete(existingUser);
         userRepository.flush();
+        this.clearUserCaches(existingUser);
         return true;
     }
 
@@ -182,6 +201,7 @@ public class UserService {
             user.setAuthorities(authorities);
         }
         userRepository.save(user);
+        this.clearUserCaches(user);
         log.debug("Created Information for User: {}", user);
         return user;
     }
@@ -199,6 +219,7 @@ public class UserService {
             .map(Optional::get)
             .map(
                 user -> {
+                    this.clearUserCaches(user);
                     user.setLogin(userDTO.getLogin().toLowerCase());
                     user.setFirstName(userDTO.getFirstName());
                     user.setLastName(userDTO.getLastName());
@@ -217,6 +238,7 @@ public class UserService {
                         .filter(Optional::isPresent)
                         .map(Optional::get)
                         .forEach(managedAuthorities::add);
+                    this.clearUserCaches(user);
                     log.debug("Changed Information for User: {}", user);
                     return user;
                 }
@@ -230,6 +252,7 @@ public class UserService {
             .ifPresent(
                 user -> {
                     userRepository.delete(user);
+                    this.clearUserCaches(user);
                     log.debug("Deleted User: {}", user);
                 }
             );
@@ -250,6 +273,7 @@ public class UserService {
             .flatMap(userRepository::findOneByLogin)
             .ifPresent(
                 user -> {
+                    this.clearUserCaches(user);
                     user.setFirstName(firstName);
                     user.setLastName(lastName);
                     if (email != null) {
@@ -257,6 +281,7 @@ public class UserService {
                     }
                     user.setLangKey(langKey);
                     user.setImageUrl(imageUrl);
+                    this.clearUserCaches(user);
                     log.debug("Changed Information for User: {}", user);
                 }
             );
@@ -275,6 +300,7 @@ public class UserService {
                     }
                     String encryptedPassword = passwordEncoder.encode(newPassword);
                     user.setPassword(encryptedPassword);
+                    this.clearUserCaches(user);
                     log.debug("Changed password for User: {}", user);
                 }
             );
@@ -313,6 +339,7 @@ public class UserService {
                 user -> {
                     log.debug("Deleting not activated user {}", user.getLogin());
                     userRepository.delete(user);
+                    this.clearUserCaches(user);
                 }
             );
     }
@@ -322,16 +349,57 @@ public class UserService {
      *
      * @return a list of all the authorities.
      */
-    @Transactional(readOnly = true)
     public List<String> getAuthorities() {
-        return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
+        return authorityRegistry.getAuthorityNames();
     }
 
+    /**
+     * Get the current user.
+     * <p>
+     * When the id of the user is part of the authentication (see {@link SecurityUtils#getCurrentUserId()}), no lookup
+     * is needed. Otherwise the lookup goes through the {@link UserRepository#USERS_BY_LOGIN_CACHE} cache, and the result
+     * is also kept for the rest of the current HTTP request, so that several calls during one request only resolve it once.
+     *
+     * @return the current user, or empty if nobody is authenticated.
+     */
     @Transactional(readOnly = true)
     public Optional<UserDTO> getUser() {
-        return SecurityUtils
-            .getCurrentUserLogin()
-            .flatMap(userRepository::findOneByLogin)
-            .map(userMapper::userToUserDTO);
+        Optional<String> login = SecurityUtils.getCurrentUserLogin();
+        if (login.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Long> userId = SecurityUtils.getCurrentUserId();
+        if (userId.isPresent()) {
+            UserDTO userDTO = new UserDTO();
+            userDTO.setId(userId.get());
+            userDTO.setLogin(login.get());
+            return Optional.of(userDTO);
+        }
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            Object cached = requestAttributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof UserDTO && login.get().equals(((UserDTO) cached).getLogin())) {
+                return Optional.of((UserDTO) cached);
+            }
+        }
+        Optional<UserDTO> user = login.flatMap(userRepository::findOneWithAuthoritiesByLogin).map(userMapper::userToUserDTO);
+        if (requestAttributes != null) {
+            user.ifPresent(userDTO -> requestAttributes.setAttribute(CURRENT_USER_ATTRIBUTE, userDTO, RequestAttributes.SCOPE_REQUEST));
+        }
+        return user;
+    }
+
+    /**
+     * Get the id of the current user, see {@link #getUser()}.
+     *
+     * @return the id of the current user, or empty if nobody is authenticated.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> getCurrentUserId() {
+        return getUser().map(UserDTO::getId);
+    }
+
+    private void clearUserCaches(User user) {
+        userCacheEvictor.evict(user);
     }
 }
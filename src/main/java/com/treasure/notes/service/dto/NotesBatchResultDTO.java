@@ -0,0 +1,85 @@
+package com.treasure.notes.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The outcome of one item of a batch of {@link com.treasure.notes.domain.Notes} writes.
+ */
+public class NotesBatchResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * What happened to the item.
+     */
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        INVALID,
+        NOT_FOUND,
+        PRECONDITION_FAILED,
+    }
+
+    private int index;
+
+    private Long id;
+
+    private Status status;
+
+    private String message;
+
+    public NotesBatchResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public NotesBatchResultDTO(int index, Long id, Status status, String message) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "NotesBatchResultDTO{" +
+            "index=" + getIndex() +
+            ", id=" + getId() +
+            ", status=" + getStatus() +
+            ", message='" + getMessage() + "'" +
+            "}";
+    }
+}
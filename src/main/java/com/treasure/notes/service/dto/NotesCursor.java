@@ -0,0 +1,100 @@
+package com.treasure.notes.service.dto;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * An opaque position in the list of notes, ordered by creation date then id, both descending.
+ * <p>
+ * It is sent to the clients encoded, and the next page starts right after the note it points to.
+ */
+public final class NotesCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String SEPARATOR = ":";
+
+    private final Date createdDate;
+
+    private final Long id;
+
+    public NotesCursor(Date createdDate, Long id) {
+        this.createdDate = Objects.requireNonNull(createdDate);
+        this.id = Objects.requireNonNull(id);
+    }
+
+    /**
+     * Create the cursor pointing to the given note.
+     *
+     * @param notesDTO the last note of a page.
+     * @return the cursor of the next page.
+     */
+    public static NotesCursor of(NotesDTO notesDTO) {
+        return new NotesCursor(notesDTO.getCreatedDate(), notesDTO.getId());
+    }
+
+    /**
+     * Decode a cursor sent by a client.
+     *
+     * @param value the encoded cursor.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the value is not a valid cursor.
+     */
+    public static NotesCursor decode(String value) {
+        String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+        int separator = decoded.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+        try {
+            return new NotesCursor(
+                new Date(Long.parseLong(decoded.substring(0, separator))),
+                Long.parseLong(decoded.substring(separator + 1))
+            );
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value, e);
+        }
+    }
+
+    public String encode() {
+        String value = createdDate.getTime() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Date getCreatedDate() {
+        return createdDate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NotesCursor)) {
+            return false;
+        }
+        NotesCursor that = (NotesCursor) o;
+        return createdDate.equals(that.createdDate) && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(createdDate, id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "NotesCursor{" +
+            "createdDate=" + createdDate.getTime() +
+            ", id=" + id +
+            "}";
+    }
+}
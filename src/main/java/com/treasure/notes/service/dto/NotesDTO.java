@@ -20,6 +20,8 @@ public class NotesDTO implements Serializable {
 
     private Date createdDate;
 
+    private Long version;
+
     public Date getCreatedDate() {
         return createdDate;
     }
@@ -28,6 +30,14 @@ public class NotesDTO implements Serializable {
         this.createdDate = createdDate;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Long getId() {
         return id;
     }
@@ -80,6 +90,7 @@ public class NotesDTO implements Serializable {
             "id=" + getId() +
             ", content='" + getContent() + "'" +
             ", user=" + getUser() +
+            ", version=" + getVersion() +
             "}";
     }
 }
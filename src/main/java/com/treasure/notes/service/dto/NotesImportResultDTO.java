@@ -0,0 +1,105 @@
+package com.treasure.notes.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of an import of {@link com.treasure.notes.domain.Notes}: the number of notes created, the number of
+ * records rejected, and why the first of them were rejected.
+ */
+public class NotesImportResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long imported;
+
+    private long rejected;
+
+    private List<LineError> errors = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * The first rejected records, up to {@code application.notes.import-max-errors}.
+     */
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<LineError> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * A rejected record.
+     */
+    public static class LineError implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private long line;
+
+        private String message;
+
+        public LineError() {
+            // Empty constructor needed for Jackson.
+        }
+
+        public LineError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        /**
+         * The number of the line the record starts on, the first line being 1.
+         */
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "LineError{" +
+                "line=" + getLine() +
+                ", message='" + getMessage() + "'" +
+                "}";
+        }
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "NotesImportResultDTO{" +
+            "imported=" + getImported() +
+            ", rejected=" + getRejected() +
+            "}";
+    }
+}
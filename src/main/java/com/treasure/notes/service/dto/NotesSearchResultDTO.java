@@ -0,0 +1,61 @@
+package com.treasure.notes.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A note found by a full-text search, with its relevance and the highlighted passages of its content.
+ */
+public class NotesSearchResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private NotesDTO notes;
+
+    private float score;
+
+    private String highlight;
+
+    public NotesSearchResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public NotesSearchResultDTO(NotesDTO notes, float score, String highlight) {
+        this.notes = notes;
+        this.score = score;
+        this.highlight = highlight;
+    }
+
+    public NotesDTO getNotes() {
+        return notes;
+    }
+
+    public void setNotes(NotesDTO notes) {
+        this.notes = notes;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    public void setScore(float score) {
+        this.score = score;
+    }
+
+    public String getHighlight() {
+        return highlight;
+    }
+
+    public void setHighlight(String highlight) {
+        this.highlight = highlight;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "NotesSearchResultDTO{" +
+            "notes=" + getNotes() +
+            ", score=" + getScore() +
+            ", highlight='" + getHighlight() + "'" +
+            "}";
+    }
+}
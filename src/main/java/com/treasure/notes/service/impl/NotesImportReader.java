@@ -0,0 +1,242 @@
+package com.treasure.notes.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treasure.notes.service.NotesImportFormat;
+import com.treasure.notes.service.dto.NotesDTO;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the records of a notes import one at a time, so that the input is never held in memory as a whole.
+ */
+class NotesImportReader {
+
+    /**
+     * Longest record which is parsed, longer records are reported without being kept. A valid notes is far shorter.
+     */
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private static final String CONTENT_COLUMN = "content";
+
+    private final BufferedReader reader;
+
+    private final NotesImportFormat format;
+
+    private final ObjectMapper objectMapper;
+
+    // The number of the line the next character is on
+    private long line = 1;
+
+    private boolean finished;
+
+    private boolean headerRead;
+
+    private int contentColumn = -1;
+
+    private int recordLength;
+
+    private boolean recordTooLong;
+
+    NotesImportReader(Reader reader, NotesImportFormat format, ObjectMapper objectMapper) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return the next record, or {@code null} once the input is read.
+     * @throws IOException if the input couldn't be read.
+     */
+    Record next() throws IOException {
+        return format == NotesImportFormat.NDJSON ? nextJson() : nextCsv();
+    }
+
+    private Record nextJson() throws IOException {
+        while (!finished) {
+            long recordLine = line;
+            String json = readLine();
+            if (recordTooLong) {
+                return Record.error(recordLine, "Record is too long");
+            }
+            if (json.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                NotesDTO notesDTO = objectMapper.readValue(json, NotesDTO.class);
+                return notesDTO != null ? Record.of(recordLine, notesDTO) : Record.error(recordLine, "Record is not a notes");
+            } catch (JsonProcessingException e) {
+                return Record.error(recordLine, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder buffer = new StringBuilder();
+        recordLength = 0;
+        recordTooLong = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == '\n') {
+                line++;
+                return buffer.toString();
+            }
+            append(buffer, c);
+        }
+        finished = true;
+        return buffer.toString();
+    }
+
+    private Record nextCsv() throws IOException {
+        if (!headerRead) {
+            headerRead = true;
+            long headerLine = line;
+            List<String> header = readCsvRecord();
+            if (header == null) {
+                return null;
+            }
+            for (int column = 0; column < header.size(); column++) {
+                // Spreadsheets may start the file with a byte order mark
+                if (CONTENT_COLUMN.equalsIgnoreCase(header.get(column).replace("\uFEFF", "").trim())) {
+                    contentColumn = column;
+                }
+            }
+            if (contentColumn < 0) {
+                finished = true;
+                return Record.error(headerLine, "The header has no " + CONTENT_COLUMN + " column");
+            }
+        }
+        while (true) {
+            long recordLine = line;
+            List<String> fields = readCsvRecord();
+            if (fields == null) {
+                return null;
+            }
+            if (recordTooLong) {
+                return Record.error(recordLine, "Record is too long");
+            }
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            NotesDTO notesDTO = new NotesDTO();
+            if (contentColumn < fields.size()) {
+                notesDTO.setContent(fields.get(contentColumn));
+            }
+            return Record.of(recordLine, notesDTO);
+        }
+    }
+
+    /**
+     * Read the fields of a CSV record as in RFC 4180, a quoted field possibly spanning several lines.
+     */
+    private List<String> readCsvRecord() throws IOException {
+        if (finished) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        recordLength = 0;
+        recordTooLong = false;
+        boolean empty = true;
+        boolean quoted = false;
+        while (true) {
+            int c = reader.read();
+            if (c == -1) {
+                finished = true;
+                if (empty) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            empty = false;
+            if (c == '\n') {
+                line++;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        append(field, '"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    append(field, c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                if (recordLength < MAX_RECORD_LENGTH) {
+                    fields.add(field.toString());
+                    recordLength++;
+                } else {
+                    recordTooLong = true;
+                }
+                field.setLength(0);
+            } else if (c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                append(field, c);
+            }
+        }
+    }
+
+    private void append(StringBuilder buffer, int c) {
+        if (recordLength < MAX_RECORD_LENGTH) {
+            buffer.append((char) c);
+            recordLength++;
+        } else {
+            recordTooLong = true;
+        }
+    }
+
+    /**
+     * A record of the import, either a notes or the reason why it couldn't be read.
+     */
+    static final class Record {
+
+        private final long line;
+
+        private final NotesDTO notesDTO;
+
+        private final String error;
+
+        private Record(long line, NotesDTO notesDTO, String error) {
+            this.line = line;
+            this.notesDTO = notesDTO;
+            this.error = error;
+        }
+
+        static Record of(long line, NotesDTO notesDTO) {
+            return new Record(line, notesDTO, null);
+        }
+
+        static Record error(long line, String error) {
+            return new Record(line, null, error);
+        }
+
+        /**
+         * The number of the line the record starts on, the first line being 1.
+         */
+        long getLine() {
+            return line;
+        }
+
+        NotesDTO getNotesDTO() {
+            return notesDTO;
+        }
+
+        String getError() {
+            return error;
+        }
+    }
+}
@@ -1,20 +1,50 @@
 package com.treasure.notes.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treasure.notes.config.ApplicationProperties;
 import com.treasure.notes.domain.Notes;
+import com.treasure.notes.domain.User;
 import com.treasure.notes.repository.NotesRepository;
+import com.treasure.notes.repository.search.NotesSearchHit;
+import com.treasure.notes.repository.search.NotesSearchRepository;
+import com.treasure.notes.service.NotesImportFormat;
 import com.treasure.notes.service.NotesService;
+import com.treasure.notes.service.NotesVersionMismatchException;
 import com.treasure.notes.service.UserService;
+import com.treasure.notes.service.dto.NotesBatchResultDTO;
 import com.treasure.notes.service.dto.NotesDTO;
+import com.treasure.notes.service.dto.NotesImportResultDTO;
+import com.treasure.notes.service.dto.NotesSearchResultDTO;
 import com.treasure.notes.service.dto.UserDTO;
 import com.treasure.notes.service.mapper.NotesMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 
 /**
  * Service Implementation for managing {@link Notes}.
@@ -31,36 +61,197 @@ public class NotesServiceImpl implements NotesService {
 
     private final UserService userService;
 
+    private final CacheManager cacheManager;
+
+    private final NotesSearchRepository notesSearchRepository;
+
+    private final Validator validator;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties applicationProperties;
+
     public NotesServiceImpl(NotesRepository notesRepository,
                             NotesMapper notesMapper,
-                            UserService userService) {
+                            UserService userService,
+                            CacheManager cacheManager,
+                            NotesSearchRepository notesSearchRepository,
+                            Validator validator,
+                            EntityManager entityManager,
+                            ObjectMapper objectMapper,
+                            ApplicationProperties applicationProperties) {
         this.notesRepository = notesRepository;
         this.notesMapper = notesMapper;
         this.userService = userService;
+        this.cacheManager = cacheManager;
+        this.notesSearchRepository = notesSearchRepository;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
     public NotesDTO save(NotesDTO notesDTO) {
         log.debug("Request to save Notes : {}", notesDTO);
         userService.getUser().ifPresent(notesDTO::setUser);
+        boolean created = notesDTO.getId() == null;
         Notes notes = notesMapper.toEntity(notesDTO);
         notes = notesRepository.save(notes);
+        notesSearchRepository.save(notes);
+        if (created) {
+            clearNotesCountCache(notes.getUser());
+        }
         return notesMapper.toDto(notes);
     }
 
+    @Override
+    public Optional<NotesDTO> update(NotesDTO notesDTO) {
+        log.debug("Request to update Notes : {}", notesDTO);
+        return updateOwnedNotes(notesDTO);
+    }
+
+    @Override
+    public List<NotesBatchResultDTO> saveAll(List<NotesDTO> notesDTOs) {
+        log.debug("Request to save {} Notes", notesDTOs.size());
+        Optional<UserDTO> user = userService.getUser();
+        Map<Long, Notes> ownedNotesById = findOwnedNotesById(
+            notesDTOs.stream().map(NotesDTO::getId).filter(Objects::nonNull).collect(Collectors.toSet()),
+            user
+        );
+        List<NotesBatchResultDTO> results = new ArrayList<>(notesDTOs.size());
+        Map<NotesBatchResultDTO, Notes> savedNotesByResult = new LinkedHashMap<>();
+        for (int index = 0; index < notesDTOs.size(); index++) {
+            NotesDTO notesDTO = notesDTOs.get(index);
+            String violations = validate(notesDTO);
+            if (violations != null) {
+                results.add(new NotesBatchResultDTO(index, notesDTO.getId(), NotesBatchResultDTO.Status.INVALID, violations));
+                continue;
+            }
+            user.ifPresent(notesDTO::setUser);
+            NotesBatchResultDTO result;
+            Notes notes;
+            if (notesDTO.getId() == null) {
+                notes = notesMapper.toEntity(notesDTO);
+                result = new NotesBatchResultDTO(index, null, NotesBatchResultDTO.Status.CREATED, null);
+            } else if (ownedNotesById.containsKey(notesDTO.getId())) {
+                notes = ownedNotesById.get(notesDTO.getId());
+                if (!isExpectedVersion(notes, notesDTO)) {
+                    results.add(
+                        new NotesBatchResultDTO(index, notesDTO.getId(), NotesBatchResultDTO.Status.PRECONDITION_FAILED, "Version mismatch")
+                    );
+                    continue;
+                }
+                notesMapper.partialUpdate(notes, notesDTO);
+                result = new NotesBatchResultDTO(index, notesDTO.getId(), NotesBatchResultDTO.Status.UPDATED, null);
+            } else {
+                results.add(new NotesBatchResultDTO(index, notesDTO.getId(), NotesBatchResultDTO.Status.NOT_FOUND, "Entity not found"));
+                continue;
+            }
+            results.add(result);
+            savedNotesByResult.put(result, notes);
+        }
+        // A single flush lets Hibernate send the inserts and updates as JDBC batches
+        List<Notes> savedNotes = notesRepository.saveAll(savedNotesByResult.values());
+        notesRepository.flush();
+        savedNotesByResult.forEach((result, notes) -> result.setId(notes.getId()));
+        notesSearchRepository.saveAll(savedNotes);
+        if (results.stream().anyMatch(result -> result.getStatus() == NotesBatchResultDTO.Status.CREATED)) {
+            user.map(UserDTO::getId).ifPresent(this::clearNotesCountCache);
+        }
+        return results;
+    }
+
+    @Override
+    public NotesImportResultDTO importAll(Reader reader, NotesImportFormat format) {
+        log.debug("Request to import Notes as {}", format);
+        Optional<UserDTO> user = userService.getUser();
+        int flushSize = applicationProperties.getNotes().getImportFlushSize();
+        int maxErrors = applicationProperties.getNotes().getImportMaxErrors();
+        NotesImportReader importReader = new NotesImportReader(reader, format, objectMapper);
+        NotesImportResultDTO result = new NotesImportResultDTO();
+        List<Notes> pendingNotes = new ArrayList<>(flushSize);
+        long imported = 0;
+        try {
+            NotesImportReader.Record record;
+            while ((record = importReader.next()) != null) {
+                NotesDTO notesDTO = record.getNotesDTO();
+                String error = notesDTO == null ? record.getError() : validate(notesDTO);
+                if (error != null) {
+                    result.setRejected(result.getRejected() + 1);
+                    if (result.getErrors().size() < maxErrors) {
+                        result.getErrors().add(new NotesImportResultDTO.LineError(record.getLine(), error));
+                    }
+                    continue;
+                }
+                notesDTO.setId(null);
+                notesDTO.setVersion(null);
+                user.ifPresent(notesDTO::setUser);
+                Notes notes = notesMapper.toEntity(notesDTO);
+                entityManager.persist(notes);
+                pendingNotes.add(notes);
+                imported++;
+                if (pendingNotes.size() >= flushSize) {
+                    flushImportedNotes(pendingNotes);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the notes to import", e);
+        }
+        flushImportedNotes(pendingNotes);
+        result.setImported(imported);
+        if (imported > 0) {
+            user.map(UserDTO::getId).ifPresent(this::clearNotesCountCache);
+        }
+        return result;
+    }
+
+    /**
+     * Send the pending inserts as JDBC batches and queue their ids for the index, then clear the persistence context
+     * so that it does not grow with the import. The index is only updated once the whole import is committed, the
+     * notes being read again from the database then.
+     */
+    private void flushImportedNotes(List<Notes> pendingNotes) {
+        entityManager.flush();
+        notesSearchRepository.saveAllById(pendingNotes.stream().map(Notes::getId).collect(Collectors.toList()));
+        entityManager.clear();
+        pendingNotes.clear();
+    }
+
     @Override
     public Optional<NotesDTO> partialUpdate(NotesDTO notesDTO) {
         log.debug("Request to partially update Notes : {}", notesDTO);
-        userService.getUser().ifPresent(notesDTO::setUser);
-        return notesRepository
-            .findById(notesDTO.getId())
+        return updateOwnedNotes(notesDTO);
+    }
+
+    /**
+     * Load the notes with its owner in a single query, then let dirty checking write the changes. The owner of
+     * a notes never changes, so the user sent by the client is ignored. The changes are flushed right away, so
+     * that the returned notes holds its new version.
+     */
+    private Optional<NotesDTO> updateOwnedNotes(NotesDTO notesDTO) {
+        notesDTO.setUser(null);
+        return userService
+            .getUser()
+            .flatMap(user -> notesRepository.findOneByIdAndUserId(notesDTO.getId(), user.getId()))
             .map(
                 existingNotes -> {
+                    if (!isExpectedVersion(existingNotes, notesDTO)) {
+                        throw new NotesVersionMismatchException();
+                    }
                     notesMapper.partialUpdate(existingNotes, notesDTO);
                     return existingNotes;
                 }
             )
-            .map(notesRepository::save)
+            .map(notesRepository::saveAndFlush)
+            .map(
+                savedNotes -> {
+                    notesSearchRepository.save(savedNotes);
+                    return savedNotes;
+                }
+            )
             .map(notesMapper::toDto);
     }
 
@@ -71,6 +262,28 @@ public class NotesServiceImpl implements NotesService {
         return notesRepository.findAll(pageable).map(notesMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public long exportAll(Consumer<NotesDTO> action) {
+        log.debug("Request to export all Notes");
+        Optional<Long> userId = userService.getCurrentUserId();
+        if (userId.isEmpty()) {
+            return 0;
+        }
+        long exported = 0;
+        try (Stream<Notes> notesStream = notesRepository.streamAllByUserId(userId.get())) {
+            Iterator<Notes> iterator = notesStream.iterator();
+            while (iterator.hasNext()) {
+                Notes notes = iterator.next();
+                action.accept(notesMapper.toDto(notes));
+                // The user is not detached, it is the same for all notes
+                entityManager.detach(notes);
+                exported++;
+            }
+        }
+        return exported;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<NotesDTO> findOne(Long id) {
@@ -81,6 +294,105 @@ public class NotesServiceImpl implements NotesService {
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Notes : {}", id);
-        notesRepository.deleteById(id);
+        notesRepository
+            .findById(id)
+            .ifPresent(
+                notes -> {
+                    notesRepository.delete(notes);
+                    clearNotesCountCache(notes.getUser());
+                }
+            );
+        notesSearchRepository.deleteById(id);
+    }
+
+    @Override
+    public List<NotesBatchResultDTO> deleteAll(List<Long> ids) {
+        log.debug("Request to delete {} Notes", ids.size());
+        Optional<UserDTO> user = userService.getUser();
+        Map<Long, Notes> ownedNotesById = findOwnedNotesById(ids, user);
+        notesRepository.deleteAll(ownedNotesById.values());
+        notesSearchRepository.deleteAllById(ownedNotesById.keySet());
+        if (!ownedNotesById.isEmpty()) {
+            user.map(UserDTO::getId).ifPresent(this::clearNotesCountCache);
+        }
+        List<NotesBatchResultDTO> results = new ArrayList<>(ids.size());
+        for (int index = 0; index < ids.size(); index++) {
+            Long id = ids.get(index);
+            results.add(
+                ownedNotesById.containsKey(id)
+                    ? new NotesBatchResultDTO(index, id, NotesBatchResultDTO.Status.DELETED, null)
+                    : new NotesBatchResultDTO(index, id, NotesBatchResultDTO.Status.NOT_FOUND, "Entity not found")
+            );
+        }
+        return results;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<NotesSearchResultDTO> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Notes for query {}", query);
+        Optional<Long> userId = userService.getCurrentUserId();
+        if (userId.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Page<NotesSearchHit> hits = notesSearchRepository.search(query, userId.get(), pageable);
+        // The notes are read from the database, so that the results never hold a note the index did not forget yet
+        Map<Long, Notes> notesById = notesRepository
+            .findAllById(hits.map(NotesSearchHit::getId).getContent())
+            .stream()
+            .collect(Collectors.toMap(Notes::getId, Function.identity()));
+        List<NotesSearchResultDTO> results = hits
+            .stream()
+            .filter(hit -> notesById.containsKey(hit.getId()))
+            .map(hit -> new NotesSearchResultDTO(notesMapper.toDto(notesById.get(hit.getId())), hit.getScore(), hit.getHighlight()))
+            .collect(Collectors.toList());
+        return new PageImpl<>(results, pageable, hits.getTotalElements());
+    }
+
+    /**
+     * Validate a notes against its constraints.
+     *
+     * @return the violated constraints, or {@code null} if the notes is valid.
+     */
+    private String validate(NotesDTO notesDTO) {
+        Set<ConstraintViolation<NotesDTO>> violations = validator.validate(notesDTO);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations
+            .stream()
+            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+    }
+
+    private static boolean isExpectedVersion(Notes notes, NotesDTO notesDTO) {
+        return notesDTO.getVersion() == null || notesDTO.getVersion().equals(notes.getVersion());
+    }
+
+    private Map<Long, Notes> findOwnedNotesById(Collection<Long> ids, Optional<UserDTO> user) {
+        if (ids.isEmpty() || user.isEmpty()) {
+            return Map.of();
+        }
+        Long userId = user.get().getId();
+        return notesRepository
+            .findAllById(ids)
+            .stream()
+            .filter(notes -> notes.getUser() != null && userId.equals(notes.getUser().getId()))
+            .collect(Collectors.toMap(Notes::getId, Function.identity()));
+    }
+
+    private void clearNotesCountCache(User owner) {
+        if (owner != null) {
+            clearNotesCountCache(owner.getId());
+        }
+    }
+
+    /**
+     * Evict the cached total of the notes of a user. As the cache manager is transaction-aware, the eviction is only
+     * applied once the transaction is committed, so that a concurrent count cannot cache the total from before it.
+     */
+    private void clearNotesCountCache(Long ownerId) {
+        Objects.requireNonNull(cacheManager.getCache(NotesRepository.NOTES_COUNT_BY_USER_CACHE)).evict(ownerId);
     }
 }
@@ -11,4 +11,13 @@ import org.mapstruct.*;
 public interface NotesMapper extends EntityMapper<NotesDTO, Notes> {
     @Mapping(target = "user", source = "user", qualifiedByName = "login")
     NotesDTO toDto(Notes s);
+
+    // The version is only changed by Hibernate, the version sent by a client is checked by the service
+    @Mapping(target = "version", ignore = true)
+    Notes toEntity(NotesDTO notesDTO);
+
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "version", ignore = true)
+    void partialUpdate(@MappingTarget Notes entity, NotesDTO dto);
 }
@@ -1,17 +1,38 @@
 package com.treasure.notes.web.rest;
 
-import com.treasure.notes.repository.NotesRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.treasure.notes.config.ApplicationProperties;
 import com.treasure.notes.security.SecurityUtils;
+import com.treasure.notes.service.NotesImportFormat;
 import com.treasure.notes.service.NotesQueryService;
 import com.treasure.notes.service.NotesService;
+import com.treasure.notes.service.NotesVersionMismatchException;
 import com.treasure.notes.service.criteria.NotesCriteria;
+import com.treasure.notes.service.dto.NotesBatchResultDTO;
+import com.treasure.notes.service.dto.NotesCursor;
 import com.treasure.notes.service.dto.NotesDTO;
+import com.treasure.notes.service.dto.NotesImportResultDTO;
+import com.treasure.notes.service.dto.NotesSearchResultDTO;
 import com.treasure.notes.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -19,11 +40,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
@@ -44,14 +70,22 @@ public class NotesResource {
 
     private final NotesService notesService;
 
-    private final NotesRepository notesRepository;
-
     private final NotesQueryService notesQueryService;
 
-    public NotesResource(NotesService notesService, NotesRepository notesRepository, NotesQueryService notesQueryService) {
+    private final ApplicationProperties applicationProperties;
+
+    private final ObjectMapper objectMapper;
+
+    public NotesResource(
+        NotesService notesService,
+        NotesQueryService notesQueryService,
+        ApplicationProperties applicationProperties,
+        ObjectMapper objectMapper
+    ) {
         this.notesService = notesService;
-        this.notesRepository = notesRepository;
         this.notesQueryService = notesQueryService;
+        this.applicationProperties = applicationProperties;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -74,20 +108,81 @@ public class NotesResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /notes/batch} : Create or update several notes in one transaction.
+     * <p>
+     * Notes without id are created, the others are updated. Each item is validated on its own, and its outcome
+     * is reported at the same position of the response.
+     *
+     * @param notesDTOs the notesDTOs to create or update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each item,
+     * or with status {@code 400 (Bad Request)} if there are too many items.
+     */
+    @PostMapping("/notes/batch")
+    public ResponseEntity<List<NotesBatchResultDTO>> saveNotesBatch(@NotNull @RequestBody List<NotesDTO> notesDTOs) {
+        log.debug("REST request to save a batch of {} Notes", notesDTOs.size());
+        checkBatchSize(notesDTOs.size());
+        return ResponseEntity.ok().body(notesService.saveAll(notesDTOs));
+    }
+
+    /**
+     * {@code DELETE  /notes/batch?ids=:ids} : delete several notes in one transaction.
+     *
+     * @param ids the ids of the notesDTOs to delete.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each id,
+     * or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @DeleteMapping("/notes/batch")
+    public ResponseEntity<List<NotesBatchResultDTO>> deleteNotesBatch(@RequestParam("ids") List<Long> ids) {
+        log.debug("REST request to delete a batch of {} Notes", ids.size());
+        checkBatchSize(ids.size());
+        return ResponseEntity.ok().body(notesService.deleteAll(ids));
+    }
+
+    /**
+     * {@code POST  /notes/import} : Create notes from newline-delimited JSON or from CSV with a {@code content} column.
+     * <p>
+     * The body is read and written to the database a record at a time, so it can hold any number of notes. Ids in
+     * the body are ignored, each valid record creates a notes.
+     *
+     * @param contentType the format of the body, {@code application/x-ndjson} or {@code text/csv}.
+     * @param body the notes to import.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of notes created and
+     * of records rejected, and the line of the first rejected records.
+     */
+    @PostMapping(value = "/notes/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, "text/csv" })
+    public ResponseEntity<NotesImportResultDTO> importNotes(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        log.debug("REST request to import Notes as {}", contentType);
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        NotesImportFormat format = MediaType.APPLICATION_NDJSON.isCompatibleWith(mediaType) ? NotesImportFormat.NDJSON : NotesImportFormat.CSV;
+        Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+        return ResponseEntity.ok().body(notesService.importAll(new InputStreamReader(body, charset), format));
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > applicationProperties.getNotes().getBatchMaxSize()) {
+            throw new BadRequestAlertException("Too many notes in one batch", ENTITY_NAME, "batchtoolarge");
+        }
+    }
+
     /**
      * {@code PUT  /notes/:id} : Updates an existing notes.
      *
      * @param id the id of the notesDTO to save.
      * @param notesDTO the notesDTO to update.
+     * @param ifMatch the {@code ETag} of the notes this update is based on, if it must not have changed since.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated notesDTO,
      * or with status {@code 400 (Bad Request)} if the notesDTO is not valid,
+     * or with status {@code 404 (Not Found)} if the current user has no notes with this id,
+     * or with status {@code 412 (Precondition Failed)} if the notes was modified since {@code If-Match} or the version of notesDTO,
      * or with status {@code 500 (Internal Server Error)} if the notesDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/notes/{id}")
     public ResponseEntity<NotesDTO> updateNotes(
         @PathVariable(value = "id", required = false) final Long id,
-        @Valid @RequestBody NotesDTO notesDTO
+        @Valid @RequestBody NotesDTO notesDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update Notes : {}, {}", id, notesDTO);
         if (notesDTO.getId() == null) {
@@ -97,15 +192,13 @@ public class NotesResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!notesRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        applyIfMatch(notesDTO, ifMatch);
 
-        NotesDTO result = notesService.save(notesDTO);
-        return ResponseEntity
-            .ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, notesDTO.getId().toString()))
-            .body(result);
+        Optional<NotesDTO> result = notesService.update(notesDTO);
+
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, notesDTO.getId().toString());
+        result.map(NotesResource::eTag).ifPresent(headers::setETag);
+        return ResponseUtil.wrapOrNotFound(result, headers);
     }
 
     /**
@@ -113,16 +206,19 @@ public class NotesResource {
      *
      * @param id the id of the notesDTO to save.
      * @param notesDTO the notesDTO to update.
+     * @param ifMatch the {@code ETag} of the notes this update is based on, if it must not have changed since.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated notesDTO,
      * or with status {@code 400 (Bad Request)} if the notesDTO is not valid,
-     * or with status {@code 404 (Not Found)} if the notesDTO is not found,
+     * or with status {@code 404 (Not Found)} if the current user has no notes with this id,
+     * or with status {@code 412 (Precondition Failed)} if the notes was modified since {@code If-Match} or the version of notesDTO,
      * or with status {@code 500 (Internal Server Error)} if the notesDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/notes/{id}", consumes = "application/merge-patch+json")
     public ResponseEntity<NotesDTO> partialUpdateNotes(
         @PathVariable(value = "id", required = false) final Long id,
-        @NotNull @RequestBody NotesDTO notesDTO
+        @NotNull @RequestBody NotesDTO notesDTO,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update Notes partially : {}, {}", id, notesDTO);
         if (notesDTO.getId() == null) {
@@ -132,29 +228,162 @@ public class NotesResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!notesRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
+        applyIfMatch(notesDTO, ifMatch);
 
         Optional<NotesDTO> result = notesService.partialUpdate(notesDTO);
 
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, notesDTO.getId().toString())
-        );
+        HttpHeaders headers = HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, notesDTO.getId().toString());
+        result.map(NotesResource::eTag).ifPresent(headers::setETag);
+        return ResponseUtil.wrapOrNotFound(result, headers);
+    }
+
+    /**
+     * Use the version of an {@code If-Match} header as the version the notes must still have, {@code *} matching
+     * any version. An {@code ETag} which is not a version can never match.
+     */
+    private static void applyIfMatch(NotesDTO notesDTO, String ifMatch) {
+        if (ifMatch == null || "*".equals(ifMatch.trim())) {
+            return;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            notesDTO.setVersion(Long.valueOf(tag.replace("\"", "")));
+        } catch (NumberFormatException e) {
+            throw new NotesVersionMismatchException();
+        }
+    }
+
+    private static String eTag(NotesDTO notesDTO) {
+        return "\"" + notesDTO.getVersion() + "\"";
     }
 
     /**
      * {@code GET  /notes} : get all the notes.
+     * <p>
+     * When the {@code cursor} parameter is given (empty for the first page), the notes are returned newest first,
+     * starting after that cursor, with a {@code Link} header to the next page and without total count.
+     * <p>
+     * Otherwise the {@code totalCount} parameter ({@code exact}, {@code cached} or {@code none}) tells how the
+     * {@code X-Total-Count} header is computed, and defaults to {@code application.notes.total-count}.
+     * <p>
+     * The response has a weak {@code ETag}, so that polling a page which did not change returns
+     * {@code 304 (Not Modified)} when it is sent in {@code If-None-Match}.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param cursor the position after which the notes are returned, to use keyset pagination.
+     * @param totalCount how the total number of notes is computed.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of notes in body.
      */
     @GetMapping("/notes")
-    public ResponseEntity<List<NotesDTO>> getAllNotes(NotesCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<NotesDTO>> getAllNotes(
+        NotesCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = "cursor", required = false) String cursor,
+        @RequestParam(value = "totalCount", required = false) String totalCount
+    ) {
         log.debug("REST request to get Notes by criteria: {}", criteria);
-        Page<NotesDTO> page = notesQueryService.findByCriteria(criteria, pageable);
+        if (cursor != null) {
+            return withListETag(getNotesAfterCursor(criteria, pageable, cursor));
+        }
+        switch (resolveTotalCount(totalCount)) {
+            case NONE:
+                Slice<NotesDTO> slice = notesQueryService.findSliceByCriteria(criteria, pageable);
+                return withListETag(ResponseEntity.ok().headers(generateSliceHttpHeaders(slice)).body(slice.getContent()));
+            case CACHED:
+                return withListETag(toResponse(notesQueryService.findByCriteriaWithCachedCount(criteria, pageable)));
+            default:
+                return withListETag(toResponse(notesQueryService.findByCriteria(criteria, pageable)));
+        }
+    }
+
+    /**
+     * Add a weak {@code ETag} derived from the id and version of each notes and from the pagination headers.
+     */
+    private static ResponseEntity<List<NotesDTO>> withListETag(ResponseEntity<List<NotesDTO>> response) {
+        StringBuilder fingerprint = new StringBuilder();
+        for (NotesDTO notesDTO : Objects.requireNonNull(response.getBody())) {
+            fingerprint.append(notesDTO.getId()).append(':').append(notesDTO.getVersion()).append(',');
+        }
+        fingerprint.append(response.getHeaders().get("X-Total-Count")).append(response.getHeaders().get(HttpHeaders.LINK));
+        String eTag = "W/\"" + DigestUtils.md5DigestAsHex(fingerprint.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        return ResponseEntity.ok().headers(response.getHeaders()).eTag(eTag).body(response.getBody());
+    }
+
+    private ApplicationProperties.Notes.TotalCount resolveTotalCount(String totalCount) {
+        if (totalCount == null) {
+            return applicationProperties.getNotes().getTotalCount();
+        }
+        try {
+            return ApplicationProperties.Notes.TotalCount.valueOf(totalCount.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid total count mode", ENTITY_NAME, "totalcountinvalid");
+        }
+    }
+
+    private ResponseEntity<List<NotesDTO>> toResponse(Page<NotesDTO> page) {
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    private HttpHeaders generateSliceHttpHeaders(Slice<NotesDTO> slice) {
+        List<String> links = new ArrayList<>();
+        if (slice.hasNext()) {
+            links.add(sliceLink(slice.getNumber() + 1, slice.getSize(), "next"));
+        }
+        if (slice.hasPrevious()) {
+            links.add(sliceLink(slice.getNumber() - 1, slice.getSize(), "prev"));
+        }
+        links.add(sliceLink(0, slice.getSize(), "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, String.join(",", links));
+        return headers;
+    }
+
+    private String sliceLink(int page, int size, String relType) {
+        UriComponentsBuilder uriBuilder = ServletUriComponentsBuilder.fromCurrentRequest();
+        String uri = uriBuilder.replaceQueryParam("page", page).replaceQueryParam("size", size).toUriString();
+        return "<" + uri + ">; rel=\"" + relType + "\"";
+    }
+
+    private ResponseEntity<List<NotesDTO>> getNotesAfterCursor(NotesCriteria criteria, Pageable pageable, String cursor) {
+        NotesCursor after = null;
+        if (!cursor.isEmpty()) {
+            try {
+                after = NotesCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+            }
+        }
+        Slice<NotesDTO> slice = notesQueryService.findByCriteria(criteria, after, pageable.getPageSize());
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            String next = NotesCursor.of(slice.getContent().get(slice.getNumberOfElements() - 1)).encode();
+            String link = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .replaceQueryParam("cursor", next)
+                .replaceQueryParam("page")
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code SEARCH  /_search/notes?query=:query} : search for the notes of the current user corresponding
+     * to the query, the most relevant first.
+     *
+     * @param query the query of the notes search.
+     * @param pageable the pagination information.
+     * @return the result of the search.
+     */
+    @GetMapping("/_search/notes")
+    public ResponseEntity<List<NotesSearchResultDTO>> searchNotes(@RequestParam String query, Pageable pageable) {
+        log.debug("REST request to search for a page of Notes for query {}", query);
+        Page<NotesSearchResultDTO> page = notesService.search(query, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -171,17 +400,65 @@ public class NotesResource {
         return ResponseEntity.ok().body(notesQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /notes/export} : export all the notes of the current user, oldest first, as newline-delimited JSON.
+     * <p>
+     * Each notes is written as soon as it is read, so the export is not held in memory. It is gzip-compressed
+     * when {@code Accept-Encoding} allows it.
+     *
+     * @param acceptEncoding the encodings accepted by the client.
+     * @param response the response the notes are written to.
+     * @throws IOException if the notes couldn't be written.
+     */
+    @GetMapping(value = "/notes/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportNotes(
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to export Notes");
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ENGLISH).contains("gzip");
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("notes.ndjson").build().toString());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream()) : response.getOutputStream();
+        // Flushing after each notes would send a chunk per line, the generator flushes when its buffer is full
+        ObjectWriter writer = objectMapper.writerFor(NotesDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            notesService.exportAll(
+                notesDTO -> {
+                    try {
+                        writer.writeValue(generator, notesDTO);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            );
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
     /**
      * {@code GET  /notes/:id} : get the "id" notes.
      *
      * @param id the id of the notesDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the notesDTO, or with status {@code 404 (Not Found)}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the notesDTO and its version as {@code ETag},
+     * or with status {@code 304 (Not Modified)} if this {@code ETag} is sent in {@code If-None-Match},
+     * or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/notes/{id}")
     public ResponseEntity<NotesDTO> getNotes(@PathVariable Long id) {
         log.debug("REST request to get Notes : {}", id);
         Optional<NotesDTO> notesDTO = notesService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(notesDTO);
+        // Spring answers 304 without writing the body when the ETag matches If-None-Match
+        HttpHeaders headers = new HttpHeaders();
+        notesDTO.map(NotesResource::eTag).ifPresent(headers::setETag);
+        return ResponseUtil.wrapOrNotFound(notesDTO, headers);
     }
 
     /**
@@ -0,0 +1,196 @@
+package com.treasure.notes.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.config.LoggingAspectConfiguration;
+import com.treasure.notes.domain.Notes;
+import com.treasure.notes.repository.NotesRepository;
+import com.treasure.notes.service.NotesQueryService;
+import com.treasure.notes.service.UserService;
+import com.treasure.notes.service.criteria.NotesCriteria;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Test class for the {@link LoggingAspect}.
+ */
+class LoggingAspectTest {
+
+    private final Logger applicationLogger = (Logger) LoggerFactory.getLogger("com.treasure.notes");
+
+    private final Logger serviceLogger = (Logger) LoggerFactory.getLogger(NotesQueryService.class);
+
+    private Level applicationLevel;
+
+    private ListAppender<ILoggingEvent> appender;
+
+    private ApplicationProperties applicationProperties;
+
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setup() {
+        applicationLevel = applicationLogger.getLevel();
+        appender = new ListAppender<>();
+        appender.start();
+        serviceLogger.addAppender(appender);
+        serviceLogger.setLevel(Level.DEBUG);
+        applicationProperties = new ApplicationProperties();
+        entityManager = mock(EntityManager.class, RETURNS_DEEP_STUBS);
+    }
+
+    @AfterEach
+    void teardown() {
+        serviceLogger.detachAppender(appender);
+        serviceLogger.setLevel(null);
+        applicationLogger.setLevel(applicationLevel);
+    }
+
+    @Test
+    void testArgumentsAreCut() {
+        applicationProperties.getLogging().setMaxArgumentLength(20);
+        NotesCriteria criteria = new NotesCriteria();
+        criteria.content().setContains("x".repeat(100));
+
+        notesQueryService().countByCriteria(criteria);
+
+        assertThat(aspectMessages()).hasSize(2);
+        assertThat(aspectMessages().get(0))
+            .startsWith("Enter: countByCriteria() with argument[s] = [")
+            .contains("characters)")
+            .doesNotContain("x".repeat(21));
+        assertThat(aspectMessages().get(1)).isEqualTo("Exit: countByCriteria() with result = 0");
+    }
+
+    @Test
+    void testResultIsCut() {
+        applicationProperties.getLogging().setMaxArgumentLength(20);
+        Tuple tuple = mock(Tuple.class);
+        when(tuple.get(1, String.class)).thenReturn("x".repeat(100));
+        when(entityManager.createQuery(ArgumentMatchers.<CriteriaQuery<Tuple>>any()).getResultList())
+            .thenReturn(List.of(tuple, tuple, tuple));
+
+        notesQueryService().findByCriteria(new NotesCriteria());
+
+        assertThat(aspectMessages().get(1))
+            .startsWith("Exit: findByCriteria() with result = [NotesDTO")
+            .endsWith("... (3 elements)")
+            .doesNotContain("x".repeat(21));
+    }
+
+    @Test
+    void testArgumentsAreNotCut() {
+        applicationProperties.getLogging().setMaxArgumentLength(0);
+        NotesCriteria criteria = new NotesCriteria();
+        criteria.content().setContains("x".repeat(100));
+
+        notesQueryService().countByCriteria(criteria);
+
+        assertThat(aspectMessages().get(0)).contains("x".repeat(100));
+    }
+
+    @Test
+    void testCallsAreNotSampled() {
+        applicationProperties.getLogging().setSampleRate(0);
+
+        notesQueryService().countByCriteria(new NotesCriteria());
+
+        assertThat(aspectMessages()).isEmpty();
+    }
+
+    @Test
+    void testCallsAreNotLoggedWithoutDebug() {
+        serviceLogger.setLevel(Level.INFO);
+
+        notesQueryService().countByCriteria(new NotesCriteria());
+
+        assertThat(aspectMessages()).isEmpty();
+    }
+
+    @Test
+    void testIllegalArgumentIsLoggedWithoutDebug() {
+        serviceLogger.setLevel(Level.INFO);
+        NotesRepository notesRepository = mock(NotesRepository.class);
+        when(notesRepository.count(ArgumentMatchers.<Specification<Notes>>any())).thenThrow(new IllegalArgumentException("Bad criteria"));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> notesQueryService(notesRepository).countByCriteria(new NotesCriteria()));
+
+        assertThat(aspectMessages()).isEmpty();
+        assertThat(appender.list)
+            .extracting(ILoggingEvent::getFormattedMessage)
+            .anySatisfy(message -> assertThat(message).startsWith("Illegal argument: ").endsWith(" in countByCriteria()"));
+    }
+
+    @Test
+    void testAspectIsEnabledByProperty() {
+        contextRunner()
+            .withPropertyValues("application.logging.aspect-enabled=true")
+            .run(context -> assertThat(context).hasSingleBean(LoggingAspect.class));
+        contextRunner().run(context -> assertThat(context).doesNotHaveBean(LoggingAspect.class));
+    }
+
+    @Test
+    void testAspectIsNotCreatedWhenLoggerIsOff() {
+        applicationLogger.setLevel(Level.OFF);
+
+        contextRunner()
+            .withPropertyValues("application.logging.aspect-enabled=true")
+            .run(context -> assertThat(context).doesNotHaveBean(LoggingAspect.class));
+    }
+
+    /**
+     * The messages of the aspect, without those of the service itself.
+     */
+    private List<String> aspectMessages() {
+        return appender
+            .list.stream()
+            .map(ILoggingEvent::getFormattedMessage)
+            .filter(message -> message.startsWith("Enter: ") || message.startsWith("Exit: "))
+            .collect(Collectors.toList());
+    }
+
+    private ApplicationContextRunner contextRunner() {
+        return new ApplicationContextRunner()
+            .withBean(ApplicationProperties.class, () -> applicationProperties)
+            .withUserConfiguration(LoggingAspectConfiguration.class);
+    }
+
+    private NotesQueryService notesQueryService() {
+        return notesQueryService(mock(NotesRepository.class));
+    }
+
+    private NotesQueryService notesQueryService(NotesRepository notesRepository) {
+        NotesQueryService target = new NotesQueryService(
+            notesRepository,
+            mock(UserService.class),
+            mock(CacheManager.class),
+            entityManager
+        );
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new LoggingAspect(new MockEnvironment(), applicationProperties));
+        return proxyFactory.getProxy();
+    }
+}
@@ -0,0 +1,86 @@
+package com.treasure.notes.aop.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.treasure.notes.domain.Notes;
+import com.treasure.notes.repository.NotesRepository;
+import com.treasure.notes.service.NotesQueryService;
+import com.treasure.notes.service.UserService;
+import com.treasure.notes.service.criteria.NotesCriteria;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Test class for the {@link NotesMetricsAspect}.
+ */
+class NotesMetricsAspectTest {
+
+    private MeterRegistry meterRegistry;
+
+    private NotesRepository notesRepository;
+
+    private NotesQueryService notesQueryService;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        notesRepository = mock(NotesRepository.class);
+        NotesQueryService target = new NotesQueryService(
+            notesRepository,
+            mock(UserService.class),
+            mock(CacheManager.class),
+            mock(EntityManager.class, RETURNS_DEEP_STUBS)
+        );
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new NotesMetricsAspect(meterRegistry));
+        notesQueryService = proxyFactory.getProxy();
+    }
+
+    @Test
+    void testTimerByCriteriaShape() {
+        NotesCriteria criteria = new NotesCriteria();
+        criteria.content().setContains("milk");
+        notesQueryService.findByCriteria(criteria);
+        notesQueryService.findByCriteria(new NotesCriteria());
+        notesQueryService.findByCriteria(new NotesCriteria());
+
+        assertThat(timer("findByCriteria(NotesCriteria)", "content").count()).isEqualTo(1);
+        assertThat(timer("findByCriteria(NotesCriteria)", NotesMetricsAspect.NO_CRITERIA).count()).isEqualTo(2);
+    }
+
+    @Test
+    void testTimerByMethod() {
+        NotesCriteria criteria = new NotesCriteria();
+        criteria.id().setEquals(1L);
+        criteria.content().setContains("milk");
+        notesQueryService.countByCriteria(criteria);
+
+        assertThat(timer("countByCriteria(NotesCriteria)", "id,content").count()).isEqualTo(1);
+        assertThat(meterRegistry.find(NotesMetricsAspect.QUERY_TIMER).tag("method", "findByCriteria(NotesCriteria)").timer()).isNull();
+    }
+
+    @Test
+    void testTimerOfFailedQuery() {
+        when(notesRepository.count(ArgumentMatchers.<Specification<Notes>>any())).thenThrow(new IllegalStateException("Database is down"));
+
+        assertThatThrownBy(() -> notesQueryService.countByCriteria(new NotesCriteria())).isInstanceOf(IllegalStateException.class);
+        assertThat(timer("countByCriteria(NotesCriteria)", NotesMetricsAspect.NO_CRITERIA).count()).isEqualTo(1);
+    }
+
+    private Timer timer(String method, String criteria) {
+        return meterRegistry.get(NotesMetricsAspect.QUERY_TIMER).tag("method", method).tag("criteria", criteria).timer();
+    }
+}
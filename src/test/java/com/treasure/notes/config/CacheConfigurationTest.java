@@ -0,0 +1,54 @@
+package com.treasure.notes.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.treasure.notes.domain.Authority;
+import com.treasure.notes.domain.Notes;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.jhipster.config.JHipsterProperties;
+
+class CacheConfigurationTest {
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cacheManager.getCacheNames().forEach(cacheManager::destroyCache);
+    }
+
+    @Test
+    void testRegionOverridesDefaultSettings() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getCache().getCaffeine().setTimeToLiveSeconds(3600);
+        jHipsterProperties.getCache().getCaffeine().setMaxEntries(100);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setMaxEntries(10L);
+        applicationProperties.getCache().getRegions().put(Authority.class.getName(), region);
+
+        new CacheConfiguration(jHipsterProperties, applicationProperties).cacheManagerCustomizer().customize(cacheManager);
+
+        CaffeineConfiguration<?, ?> authorityConfiguration = configurationOf(Authority.class.getName());
+        assertThat(authorityConfiguration.getMaximumSize()).isEqualTo(OptionalLong.of(10));
+        assertThat(authorityConfiguration.getExpireAfterWrite()).isEqualTo(OptionalLong.of(TimeUnit.HOURS.toNanos(1)));
+        assertThat(configurationOf(Notes.class.getName()).getMaximumSize()).isEqualTo(OptionalLong.of(100));
+    }
+
+    @SuppressWarnings("unchecked")
+    private CaffeineConfiguration<?, ?> configurationOf(String cacheName) {
+        return cacheManager.getCache(cacheName).getConfiguration(CaffeineConfiguration.class);
+    }
+}
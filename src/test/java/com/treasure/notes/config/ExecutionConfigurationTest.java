@@ -0,0 +1,74 @@
+package com.treasure.notes.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.treasure.notes.config.execution.ConcurrencyLimitFilter;
+import com.treasure.notes.config.execution.VirtualThreads;
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+/**
+ * Test class for the {@link ExecutionConfiguration}.
+ */
+class ExecutionConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withBean(ApplicationProperties.class, ApplicationProperties::new)
+        .withBean(DataSource.class, () -> mock(DataSource.class))
+        .withUserConfiguration(ExecutionConfiguration.class);
+
+    @Test
+    void testMaxConcurrencyOfHikari() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setMaximumPoolSize(7);
+
+            assertThat(ExecutionConfiguration.maxConcurrency(new ApplicationProperties.Execution(), dataSource)).isEqualTo(7);
+        }
+    }
+
+    @Test
+    void testConfiguredOrDefaultMaxConcurrency() {
+        ApplicationProperties.Execution execution = new ApplicationProperties.Execution();
+        execution.setMaxConcurrency(3);
+
+        assertThat(ExecutionConfiguration.maxConcurrency(execution, new HikariDataSource())).isEqualTo(3);
+        assertThat(ExecutionConfiguration.maxConcurrency(new ApplicationProperties.Execution(), mock(DataSource.class))).isEqualTo(10);
+        assertThat(ExecutionConfiguration.maxConcurrency(new ApplicationProperties.Execution(), new HikariDataSource())).isEqualTo(10);
+    }
+
+    @Test
+    void testPlatformThreadsByDefault() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(ConcurrencyLimitFilter.class));
+    }
+
+    @Test
+    void testVirtualThreads() {
+        contextRunner
+            .withPropertyValues("application.execution.mode=virtual")
+            .run(context -> {
+                if (VirtualThreads.isSupported()) {
+                    assertThat(context).hasSingleBean(ConcurrencyLimitFilter.class);
+                } else {
+                    // The application doesn't fall back to platform threads when they were asked for
+                    assertThat(context).hasFailed();
+                    assertThat(context.getStartupFailure()).hasRootCauseMessage(
+                        "Virtual threads require Java 21 or later, the application runs on Java " + System.getProperty("java.version")
+                    );
+                }
+            });
+    }
+
+    @Test
+    void testVirtualThreadFactory() {
+        if (VirtualThreads.isSupported()) {
+            Thread thread = VirtualThreads.threadFactory("test-virtual-").newThread(() -> {});
+            assertThat(thread.getName()).isEqualTo("test-virtual-0");
+        } else {
+            assertThatThrownBy(() -> VirtualThreads.threadFactory("test-virtual-")).isInstanceOf(IllegalStateException.class);
+        }
+    }
+}
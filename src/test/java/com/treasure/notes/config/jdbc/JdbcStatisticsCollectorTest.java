@@ -0,0 +1,166 @@
+package com.treasure.notes.config.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.treasure.notes.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link JdbcStatisticsCollector}.
+ */
+class JdbcStatisticsCollectorTest {
+
+    private static final String SELECT_NOTE = "select content from note where id = ?";
+
+    private ApplicationProperties applicationProperties;
+
+    private MeterRegistry meterRegistry;
+
+    private Connection connection;
+
+    private JdbcStatisticsCollector collector;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getJdbcStatistics().setRepeatedStatementThreshold(3);
+        meterRegistry = new SimpleMeterRegistry();
+        connection = dataSource().getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table note (id bigint primary key, content varchar(255))");
+            statement.execute("insert into note values (1, 'one'), (2, 'two'), (3, 'three')");
+        }
+        collector.reset();
+    }
+
+    @AfterEach
+    void teardown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table note");
+        }
+        connection.close();
+    }
+
+    @Test
+    void testStatementStatistics() throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery("select * from note")) {
+            while (resultSet.next()) {
+                assertThat(resultSet.getString("content")).isNotNull();
+            }
+        }
+
+        assertThat(collector.getStatements()).hasSize(1);
+        JdbcStatisticsCollector.StatementStatistics statistics = collector.getStatements().get(0);
+        assertThat(statistics.getSql()).isEqualTo("select * from note");
+        assertThat(statistics.getExecutions()).isEqualTo(1);
+        assertThat(statistics.getErrors()).isZero();
+        assertThat(statistics.getRows()).isEqualTo(3);
+        assertThat(meterRegistry.get("jdbc.statements").tag("type", "select").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("jdbc.statements.rows").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void testRepeatedStatementsOfRequest() throws SQLException {
+        collector.startRequest(() -> "GET /api/notes");
+        for (long id = 1; id <= 3; id++) {
+            selectNote(id);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeQuery("select count(*) from note").close();
+        }
+        collector.endRequest();
+
+        assertThat(collector.getRepeatedStatements()).hasSize(1);
+        JdbcStatisticsCollector.RepeatedStatement repeatedStatement = collector.getRepeatedStatements().get(0);
+        assertThat(repeatedStatement.getRequest()).isEqualTo("GET /api/notes");
+        assertThat(repeatedStatement.getSql()).isEqualTo(SELECT_NOTE);
+        assertThat(repeatedStatement.getMaxExecutions()).isEqualTo(3);
+        assertThat(meterRegistry.get("jdbc.requests.statements").summary().totalAmount()).isEqualTo(4);
+        assertThat(meterRegistry.get("jdbc.statements.repeated").tag("request", "GET /api/notes").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testStatementsOutsideOfRequestAreNotRepeated() throws SQLException {
+        for (long id = 1; id <= 3; id++) {
+            selectNote(id);
+        }
+        collector.endRequest();
+
+        assertThat(collector.getStatements().get(0).getExecutions()).isEqualTo(3);
+        assertThat(collector.getRepeatedStatements()).isEmpty();
+    }
+
+    @Test
+    void testSlowStatements() throws SQLException {
+        applicationProperties.getJdbcStatistics().setSlowStatementThresholdMillis(0);
+        applicationProperties.getJdbcStatistics().setMaxSlowStatements(2);
+        reconnect();
+
+        for (long id = 1; id <= 3; id++) {
+            selectNote(id);
+        }
+
+        assertThat(collector.getSlowStatements()).hasSize(2);
+        assertThat(collector.getSlowStatements().get(0).getSql()).isEqualTo(SELECT_NOTE);
+        assertThat(meterRegistry.get("jdbc.statements.slow").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testOtherStatements() throws SQLException {
+        applicationProperties.getJdbcStatistics().setMaxStatements(1);
+        reconnect();
+
+        selectNote(1);
+        try (Statement statement = connection.createStatement()) {
+            statement.executeQuery("select count(*) from note").close();
+        }
+
+        assertThat(collector.getStatements())
+            .extracting(JdbcStatisticsCollector.StatementStatistics::getSql)
+            .containsExactlyInAnyOrder(SELECT_NOTE, JdbcStatisticsCollector.OTHER_STATEMENTS);
+    }
+
+    @Test
+    void testStatementType() {
+        assertThat(JdbcStatisticsCollector.statementType("  SELECT * from note")).isEqualTo("select");
+        assertThat(JdbcStatisticsCollector.statementType("insert into note values (?, ?)")).isEqualTo("insert");
+        assertThat(JdbcStatisticsCollector.statementType("merge into note")).isEqualTo("other");
+    }
+
+    private void reconnect() throws SQLException {
+        connection.close();
+        connection = dataSource().getConnection();
+    }
+
+    private void selectNote(long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_NOTE)) {
+            statement.setLong(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                assertThat(resultSet.next()).isTrue();
+            }
+        }
+    }
+
+    /**
+     * A new collector with the current settings, and a data source recording into it.
+     */
+    private DataSource dataSource() {
+        collector = new JdbcStatisticsCollector(applicationProperties);
+        collector.bindTo(meterRegistry);
+        JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setURL("jdbc:h2:mem:jdbcstatistics;DB_CLOSE_DELAY=-1");
+        return ProxyDataSourceBuilder.create(h2DataSource).listener(collector).proxyResultSet(collector).build();
+    }
+}
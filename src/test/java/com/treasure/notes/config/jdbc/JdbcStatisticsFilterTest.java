@@ -0,0 +1,28 @@
+package com.treasure.notes.config.jdbc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Test class for the {@link JdbcStatisticsFilter}.
+ */
+class JdbcStatisticsFilterTest {
+
+    @Test
+    void testRequestIsNamedByPattern() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/notes/42");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/notes/{id}");
+
+        assertThat(JdbcStatisticsFilter.requestName(request)).isEqualTo("GET /api/notes/{id}");
+    }
+
+    @Test
+    void testRequestWithoutPatternIsNotNamedByUri() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/unknown/42");
+
+        assertThat(JdbcStatisticsFilter.requestName(request)).isEqualTo("GET UNKNOWN");
+    }
+}
@@ -0,0 +1,38 @@
+package com.treasure.notes.repository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records the SQL statements prepared by Hibernate, so that tests can assert on the generated queries.
+ * <p>
+ * Registered with the {@code hibernate.session_factory.statement_inspector} property of the test configuration. Only
+ * the statements of the thread which called {@link #clear()} are recorded, so that those of the scheduled tasks, such
+ * as the outbox of the emails, do not end up among the ones of the test.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    private static volatile Thread recordedThread;
+
+    @Override
+    public String inspect(String sql) {
+        if (Thread.currentThread() == recordedThread) {
+            STATEMENTS.add(sql);
+        }
+        return sql;
+    }
+
+    public static List<String> getStatements() {
+        return List.copyOf(STATEMENTS);
+    }
+
+    public static void clear() {
+        recordedThread = Thread.currentThread();
+        STATEMENTS.clear();
+    }
+}
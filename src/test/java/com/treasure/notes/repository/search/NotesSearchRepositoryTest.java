@@ -0,0 +1,222 @@
+package com.treasure.notes.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.domain.Notes;
+import com.treasure.notes.domain.User;
+import com.treasure.notes.repository.NotesRepository;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class NotesSearchRepositoryTest {
+
+    private NotesRepository notesRepository;
+
+    private NotesSearchRepository notesSearchRepository;
+
+    private User user;
+
+    private User otherUser;
+
+    @BeforeEach
+    public void setup() {
+        notesRepository = mock(NotesRepository.class);
+        notesSearchRepository = new NotesSearchRepository(notesRepository, new ApplicationProperties());
+        user = new User();
+        user.setId(1L);
+        otherUser = new User();
+        otherUser.setId(2L);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        notesSearchRepository.close();
+    }
+
+    @Test
+    void testSearchIsRankedAndHighlighted() {
+        notesSearchRepository.save(notes(1L, user, "Buy milk and bread"));
+        notesSearchRepository.save(notes(2L, user, "Milk, milk and more milk for the cat"));
+        notesSearchRepository.save(notes(3L, user, "Call the plumber"));
+
+        Page<NotesSearchHit> hits = notesSearchRepository.search("milk", user.getId(), PageRequest.of(0, 10));
+
+        assertThat(hits.getTotalElements()).isEqualTo(2);
+        assertThat(hits.getContent()).extracting(NotesSearchHit::getId).containsExactly(2L, 1L);
+        assertThat(hits.getContent().get(1).getHighlight()).isEqualTo("Buy <em>milk</em> and bread");
+    }
+
+    @Test
+    void testSearchIsScopedToTheUser() {
+        notesSearchRepository.save(notes(1L, user, "Secret recipe"));
+        notesSearchRepository.save(notes(2L, otherUser, "Secret plan"));
+
+        Page<NotesSearchHit> hits = notesSearchRepository.search("secret", user.getId(), PageRequest.of(0, 10));
+
+        assertThat(hits.getContent()).extracting(NotesSearchHit::getId).containsExactly(1L);
+    }
+
+    @Test
+    void testSaveAndDeleteUpdateTheIndex() {
+        notesSearchRepository.save(notes(1L, user, "Old content"));
+        notesSearchRepository.save(notes(1L, user, "New content"));
+        assertThat(notesSearchRepository.search("old", user.getId(), PageRequest.of(0, 10))).isEmpty();
+        assertThat(notesSearchRepository.search("new", user.getId(), PageRequest.of(0, 10))).hasSize(1);
+
+        notesSearchRepository.deleteById(1L);
+        assertThat(notesSearchRepository.search("content", user.getId(), PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void testChangesWithinATransactionAreAppliedOnCommit() {
+        notesSearchRepository.save(notes(1L, user, "Deleted in the transaction"));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            notesSearchRepository.save(notes(2L, user, "Saved in the transaction"));
+            notesSearchRepository.deleteById(1L);
+            assertThat(notesSearchRepository.search("transaction", user.getId(), PageRequest.of(0, 10)))
+                .extracting(NotesSearchHit::getId)
+                .containsExactly(1L);
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(notesSearchRepository.search("transaction", user.getId(), PageRequest.of(0, 10)))
+            .extracting(NotesSearchHit::getId)
+            .containsExactly(2L);
+        assertThat(TransactionSynchronizationManager.getResourceMap()).isEmpty();
+    }
+
+    @Test
+    void testChangesWithinATransactionAreDiscardedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            notesSearchRepository.save(notes(1L, user, "Rolled back"));
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK
+            );
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(notesSearchRepository.search("rolled", user.getId(), PageRequest.of(0, 10))).isEmpty();
+        assertThat(TransactionSynchronizationManager.getResourceMap()).isEmpty();
+    }
+
+    @Test
+    void testNotesSavedByIdAreReadFromTheDatabaseOnCommit() {
+        notesSearchRepository.save(notes(3L, user, "Imported then deleted"));
+        List<NotesRepository.IndexedNotes> indexedNotes = List.of(indexedNotes(2L, user, "Imported in the transaction"));
+        when(notesRepository.findIndexedByIdIn(any())).thenReturn(indexedNotes);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            notesSearchRepository.saveAllById(List.of(2L, 3L));
+            verify(notesRepository, never()).findIndexedByIdIn(any());
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(notesSearchRepository.search("imported", user.getId(), PageRequest.of(0, 10)))
+            .extracting(NotesSearchHit::getId)
+            .containsExactly(2L);
+        verify(notesRepository).findIndexedByIdIn(List.of(2L, 3L));
+    }
+
+    @Test
+    void testSearchIsPaged() {
+        for (long id = 1; id <= 5; id++) {
+            notesSearchRepository.save(notes(id, user, "Note number " + id));
+        }
+
+        Page<NotesSearchHit> hits = notesSearchRepository.search("note", user.getId(), PageRequest.of(2, 2));
+
+        assertThat(hits.getTotalElements()).isEqualTo(5);
+        assertThat(hits.getContent()).hasSize(1);
+    }
+
+    @Test
+    void testReindexAll() {
+        notesSearchRepository.save(notes(1L, user, "Deleted meanwhile"));
+        when(notesRepository.findSlice(any(), any(Pageable.class)))
+            .thenReturn(new SliceImpl<>(List.of(notes(2L, user, "Still there")), PageRequest.of(0, 500), false));
+
+        notesSearchRepository.reindexAll();
+
+        assertThat(notesSearchRepository.search("deleted", user.getId(), PageRequest.of(0, 10))).isEmpty();
+        assertThat(notesSearchRepository.search("still", user.getId(), PageRequest.of(0, 10))).hasSize(1);
+    }
+
+    @Test
+    void testReindexAllDoesNotDuplicateNotesSavedMeanwhile() {
+        when(notesRepository.findSlice(any(), any(Pageable.class)))
+            .thenAnswer(invocation -> {
+                // Saved after the rebuild began, and read again by the rebuild
+                notesSearchRepository.save(notes(1L, user, "Saved meanwhile"));
+                return new SliceImpl<>(List.of(notes(1L, user, "Saved meanwhile")), PageRequest.of(0, 500), false);
+            });
+
+        notesSearchRepository.reindexAll();
+
+        assertThat(notesSearchRepository.search("meanwhile", user.getId(), PageRequest.of(0, 10))).hasSize(1);
+    }
+
+    @Test
+    void testCommitMakesTheChangesDurable(@TempDir Path indexDirectory) throws IOException {
+        notesSearchRepository.close();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearch().setIndexDirectory(indexDirectory.toString());
+        notesSearchRepository = new NotesSearchRepository(notesRepository, applicationProperties);
+        notesSearchRepository.save(notes(1L, user, "Durable"));
+
+        notesSearchRepository.commit();
+
+        try (Directory directory = FSDirectory.open(indexDirectory); DirectoryReader reader = DirectoryReader.open(directory)) {
+            assertThat(reader.numDocs()).isEqualTo(1);
+        }
+    }
+
+    private static NotesRepository.IndexedNotes indexedNotes(Long id, User user, String content) {
+        NotesRepository.IndexedNotes notes = mock(NotesRepository.IndexedNotes.class);
+        when(notes.getId()).thenReturn(id);
+        when(notes.getUserId()).thenReturn(user.getId());
+        when(notes.getContent()).thenReturn(content);
+        return notes;
+    }
+
+    private static Notes notes(Long id, User user, String content) {
+        Notes notes = new Notes().content(content).user(user);
+        notes.setId(id);
+        return notes;
+    }
+}
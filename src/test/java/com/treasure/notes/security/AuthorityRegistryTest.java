@@ -0,0 +1,90 @@
+package com.treasure.notes.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Test class for the {@link AuthorityRegistry}.
+ */
+class AuthorityRegistryTest {
+
+    private List<String> authorityNames;
+
+    private AuthorityRegistry authorityRegistry;
+
+    @BeforeEach
+    void setup() {
+        authorityNames = new ArrayList<>(Arrays.asList(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN));
+        authorityRegistry = AuthorityRegistryTestUtil.authorityRegistry(authorityNames);
+    }
+
+    @Test
+    void testGetAuthorityNames() {
+        assertThat(authorityRegistry.getAuthorityNames()).containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void testGetGrantedAuthorityIsShared() {
+        GrantedAuthority grantedAuthority = authorityRegistry.getGrantedAuthority(AuthoritiesConstants.USER);
+
+        assertThat(grantedAuthority.getAuthority()).isEqualTo(AuthoritiesConstants.USER);
+        assertThat(authorityRegistry.getGrantedAuthority(AuthoritiesConstants.USER)).isSameAs(grantedAuthority);
+    }
+
+    @Test
+    void testGetGrantedAuthorityOfUnknownName() {
+        GrantedAuthority grantedAuthority = authorityRegistry.getGrantedAuthority("ROLE_UNKNOWN");
+
+        assertThat(grantedAuthority.getAuthority()).isEqualTo("ROLE_UNKNOWN");
+        assertThat(authorityRegistry.getAuthorityNames()).doesNotContain("ROLE_UNKNOWN");
+    }
+
+    @Test
+    void testGetGrantedAuthoritiesIsShared() {
+        String claim = AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER;
+
+        List<GrantedAuthority> grantedAuthorities = authorityRegistry.getGrantedAuthorities(claim);
+
+        assertThat(grantedAuthorities)
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(grantedAuthorities.get(0)).isSameAs(authorityRegistry.getGrantedAuthority(AuthoritiesConstants.ADMIN));
+        assertThat(authorityRegistry.getGrantedAuthorities(claim)).isSameAs(grantedAuthorities);
+    }
+
+    @Test
+    void testGetGrantedAuthoritiesSkipsBlankNames() {
+        assertThat(authorityRegistry.getGrantedAuthorities("")).isEmpty();
+        assertThat(authorityRegistry.getGrantedAuthorities(AuthoritiesConstants.USER + ", ,"))
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void testGetGrantedAuthoritiesWithUnknownNameIsNotShared() {
+        String claim = AuthoritiesConstants.USER + ",ROLE_UNKNOWN";
+
+        List<GrantedAuthority> grantedAuthorities = authorityRegistry.getGrantedAuthorities(claim);
+
+        assertThat(grantedAuthorities).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.USER, "ROLE_UNKNOWN");
+        assertThat(authorityRegistry.getGrantedAuthorities(claim)).isNotSameAs(grantedAuthorities);
+    }
+
+    @Test
+    void testRefresh() {
+        GrantedAuthority grantedAuthority = authorityRegistry.getGrantedAuthority(AuthoritiesConstants.USER);
+        authorityNames.add(AuthoritiesConstants.ANONYMOUS);
+
+        authorityRegistry.refresh();
+
+        assertThat(authorityRegistry.getAuthorityNames())
+            .containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.ANONYMOUS, AuthoritiesConstants.USER);
+        assertThat(authorityRegistry.getGrantedAuthority(AuthoritiesConstants.USER)).isNotSameAs(grantedAuthority);
+    }
+}
@@ -0,0 +1,46 @@
+package com.treasure.notes.security;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.treasure.notes.domain.Authority;
+import com.treasure.notes.repository.AuthorityRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for the tests and benchmarks needing an {@link AuthorityRegistry} without a database.
+ */
+public final class AuthorityRegistryTestUtil {
+
+    private AuthorityRegistryTestUtil() {}
+
+    /**
+     * Create a registry of the default authorities.
+     *
+     * @return the registry.
+     */
+    public static AuthorityRegistry authorityRegistry() {
+        return authorityRegistry(List.of(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER, AuthoritiesConstants.ANONYMOUS));
+    }
+
+    /**
+     * Create a registry of the given authorities, read again from the collection on each refresh.
+     *
+     * @param authorityNames the names of the authorities.
+     * @return the registry.
+     */
+    public static AuthorityRegistry authorityRegistry(Collection<String> authorityNames) {
+        AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll())
+            .thenAnswer(invocation -> authorityNames.stream().map(AuthorityRegistryTestUtil::authority).collect(Collectors.toList()));
+        return new AuthorityRegistry(authorityRepository);
+    }
+
+    private static Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
+    }
+}
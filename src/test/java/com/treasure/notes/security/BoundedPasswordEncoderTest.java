@@ -0,0 +1,110 @@
+package com.treasure.notes.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.treasure.notes.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Test class for the {@link BoundedPasswordEncoder}.
+ */
+class BoundedPasswordEncoderTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void teardown() {
+        passwordEncoder.destroy();
+    }
+
+    @Test
+    void testPasswordIsHashedWithTheConfiguredStrength() {
+        ApplicationProperties.Security.PasswordHashing properties = new ApplicationProperties.Security.PasswordHashing();
+        properties.setStrength(5);
+        passwordEncoder = new BoundedPasswordEncoder(properties);
+        passwordEncoder.bindTo(meterRegistry);
+
+        String encodedPassword = passwordEncoder.encode("password");
+
+        assertThat(encodedPassword).startsWith("$2a$05$");
+        assertThat(passwordEncoder.matches("password", encodedPassword)).isTrue();
+        assertThat(passwordEncoder.matches("other", encodedPassword)).isFalse();
+        assertThat(meterRegistry.get("security.password.hashing").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.password.hashing").tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testPasswordHashedWithFewerRoundsIsUpgraded() {
+        ApplicationProperties.Security.PasswordHashing properties = new ApplicationProperties.Security.PasswordHashing();
+        properties.setStrength(5);
+        passwordEncoder = new BoundedPasswordEncoder(properties);
+
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password"))).isFalse();
+    }
+
+    @Test
+    void testHashingBeyondQueueCapacityIsRejected() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        passwordEncoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(running, release), 1, 1);
+        passwordEncoder.bindTo(meterRegistry);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("first"));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("second"));
+        while (meterRegistry.get("security.password.hashing.queued").gauge().value() < 1) {
+            Thread.sleep(10);
+        }
+
+        assertThatExceptionOfType(PasswordHashingRejectedException.class).isThrownBy(() -> passwordEncoder.encode("third"));
+        assertThat(meterRegistry.get("security.password.hashing.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("security.password.hashing.active").gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("encoded-first");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("encoded-second");
+    }
+
+    /**
+     * Encodes the passwords once released.
+     */
+    private static class BlockingPasswordEncoder implements PasswordEncoder {
+
+        private final CountDownLatch running;
+
+        private final CountDownLatch release;
+
+        BlockingPasswordEncoder(CountDownLatch running, CountDownLatch release) {
+            this.running = running;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "encoded-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals(encode(rawPassword));
+        }
+    }
+}
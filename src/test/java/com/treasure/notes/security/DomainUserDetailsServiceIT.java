@@ -6,19 +6,28 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import com.treasure.notes.IntegrationTest;
 import com.treasure.notes.domain.User;
 import com.treasure.notes.repository.UserRepository;
+import com.treasure.notes.service.UserService;
+import java.util.List;
 import java.util.Locale;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * Integrations tests for {@link DomainUserDetailsService}.
+ * <p>
+ * Not transactional: the cache of the users logging in is only written and evicted once a transaction is committed.
  */
-@Transactional
 @IntegrationTest
 class DomainUserDetailsServiceIT {
 
@@ -35,8 +44,25 @@ class DomainUserDetailsServiceIT {
     @Autowired
     private UserDetailsService domainUserDetailsService;
 
+    @Autowired
+    private AuthenticationManagerBuilder authenticationManagerBuilder;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Cache userDetailsCache;
+
     @BeforeEach
     public void init() {
+        userDetailsCache = cacheManager.getCache(DomainUserDetailsService.USER_DETAILS_CACHE);
+        userDetailsCache.clear();
+
         User userOne = new User();
         userOne.setLogin(USER_ONE_LOGIN);
         userOne.setPassword(RandomStringUtils.random(60));
@@ -68,6 +94,16 @@ class DomainUserDetailsServiceIT {
         userRepository.save(userThree);
     }
 
+    @AfterEach
+    public void cleanup() {
+        for (String login : List.of(USER_ONE_LOGIN, USER_TWO_LOGIN, USER_THREE_LOGIN)) {
+            userRepository.findOneByLogin(login).ifPresent(userRepository::delete);
+        }
+        userDetailsCache.clear();
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+    }
+
     @Test
     void assertThatUserCanBeFoundByLogin() {
         UserDetails userDetails = domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN);
@@ -103,9 +139,76 @@ class DomainUserDetailsServiceIT {
         assertThat(userDetails.getUsername()).isEqualTo(USER_ONE_LOGIN);
     }
 
+    @Test
+    void assertThatPasswordHashedWithFewerRoundsIsHashedAgainOnLogin() {
+        User userOne = userRepository.findOneByLogin(USER_ONE_LOGIN).orElseThrow();
+        userOne.setPassword(new BCryptPasswordEncoder(4).encode("password"));
+        userRepository.saveAndFlush(userOne);
+        domainUserDetailsService.loadUserByUsername(USER_ONE_EMAIL);
+
+        authenticationManagerBuilder.getObject().authenticate(new UsernamePasswordAuthenticationToken(USER_ONE_LOGIN, "password"));
+
+        String encodedPassword = userRepository.findOneByLogin(USER_ONE_LOGIN).orElseThrow().getPassword();
+        assertThat(encodedPassword).startsWith("$2a$10$");
+        assertThat(passwordEncoder.matches("password", encodedPassword)).isTrue();
+        assertThat(domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN).getPassword()).isEqualTo(encodedPassword);
+        assertThat(domainUserDetailsService.loadUserByUsername(USER_ONE_EMAIL).getPassword()).isEqualTo(encodedPassword);
+    }
+
     @Test
     void assertThatUserNotActivatedExceptionIsThrownForNotActivatedUsers() {
         assertThatExceptionOfType(UserNotActivatedException.class)
             .isThrownBy(() -> domainUserDetailsService.loadUserByUsername(USER_THREE_LOGIN));
+        assertThat(userDetailsCache.get(USER_THREE_LOGIN)).isNull();
+    }
+
+    @Test
+    void assertThatUserIsCachedByLowerCaseLoginAndEmail() {
+        UserDetails byLogin = domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN.toUpperCase(Locale.ENGLISH));
+        UserDetails byEmail = domainUserDetailsService.loadUserByUsername(USER_ONE_EMAIL.toUpperCase(Locale.ENGLISH));
+
+        assertThat(userDetailsCache.get(USER_ONE_LOGIN)).isNotNull();
+        assertThat(userDetailsCache.get(USER_ONE_EMAIL)).isNotNull();
+        assertThat(domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN)).isEqualTo(byLogin).isNotSameAs(byLogin);
+        assertThat(domainUserDetailsService.loadUserByUsername(USER_ONE_EMAIL)).isEqualTo(byEmail).isNotSameAs(byEmail);
+    }
+
+    @Test
+    void assertThatErasedPasswordIsNotCached() {
+        UserDetails userDetails = domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN);
+        String password = userDetails.getPassword();
+
+        ((AuthenticatedUser) userDetails).eraseCredentials();
+
+        assertThat(domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN).getPassword()).isEqualTo(password);
+    }
+
+    @Test
+    void assertThatUserIsEvictedWhenChangedByUserService() {
+        domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN);
+        domainUserDetailsService.loadUserByUsername(USER_ONE_EMAIL);
+
+        userService.requestPasswordReset(USER_ONE_EMAIL);
+
+        assertThat(userDetailsCache.get(USER_ONE_LOGIN)).isNull();
+        assertThat(userDetailsCache.get(USER_ONE_EMAIL)).isNull();
+    }
+
+    @Test
+    void assertThatUserChangedElsewhereIsReadAgainOnceExpired() {
+        domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN);
+        domainUserDetailsService.loadUserByUsername(USER_ONE_EMAIL.toUpperCase(Locale.ENGLISH));
+
+        // Changed without the UserService, as by another instance
+        User userOne = userRepository.findOneByLogin(USER_ONE_LOGIN).orElseThrow();
+        String encodedPassword = passwordEncoder.encode("password");
+        userOne.setPassword(encodedPassword);
+        userRepository.saveAndFlush(userOne);
+        // Expired
+        userDetailsCache.clear();
+
+        assertThat(domainUserDetailsService.loadUserByUsername(USER_ONE_LOGIN).getPassword()).isEqualTo(encodedPassword);
+        assertThat(domainUserDetailsService.loadUserByUsername(USER_ONE_EMAIL.toUpperCase(Locale.ENGLISH)).getPassword())
+            .isEqualTo(encodedPassword);
     }
 }
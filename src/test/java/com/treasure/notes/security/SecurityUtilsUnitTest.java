@@ -34,6 +34,25 @@ class SecurityUtilsUnitTest {
         assertThat(login).contains("admin");
     }
 
+    @Test
+    void testGetCurrentUserId() {
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        AuthenticatedUser principal = new AuthenticatedUser(42L, "admin", "", new ArrayList<>());
+        securityContext.setAuthentication(new UsernamePasswordAuthenticationToken(principal, "token"));
+        SecurityContextHolder.setContext(securityContext);
+        Optional<Long> userId = SecurityUtils.getCurrentUserId();
+        assertThat(userId).contains(42L);
+    }
+
+    @Test
+    void testGetCurrentUserIdWithoutId() {
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(new UsernamePasswordAuthenticationToken("admin", "admin"));
+        SecurityContextHolder.setContext(securityContext);
+        Optional<Long> userId = SecurityUtils.getCurrentUserId();
+        assertThat(userId).isEmpty();
+    }
+
     @Test
     void testgetCurrentUserJWT() {
         SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
@@ -2,7 +2,10 @@ package com.treasure.notes.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.security.AuthenticatedUser;
 import com.treasure.notes.security.AuthoritiesConstants;
+import com.treasure.notes.security.AuthorityRegistryTestUtil;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -31,7 +34,7 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
-        tokenProvider = new TokenProvider(jHipsterProperties);
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), AuthorityRegistryTestUtil.authorityRegistry());
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -89,7 +92,11 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setSecret(secret);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        TokenProvider tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            AuthorityRegistryTestUtil.authorityRegistry()
+        );
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -101,12 +108,91 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        TokenProvider tokenProvider = new TokenProvider(
+            jHipsterProperties,
+            new ApplicationProperties(),
+            AuthorityRegistryTestUtil.authorityRegistry()
+        );
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
     }
 
+    @Test
+    void testUserIdClaimIsIssuedAndRestored() {
+        Collection<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER));
+        AuthenticatedUser principal = new AuthenticatedUser(42L, "user", "password", authorities);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(principal, "password", authorities);
+
+        String token = tokenProvider.createToken(authentication, false);
+        Authentication restored = tokenProvider.getAuthentication(token);
+
+        assertThat(restored.getName()).isEqualTo("user");
+        assertThat(restored.getPrincipal()).isInstanceOf(AuthenticatedUser.class);
+        assertThat(((AuthenticatedUser) restored.getPrincipal()).getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void testTokenWithoutUserIdClaimIsStillAccepted() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Authentication restored = tokenProvider.getAuthentication(token);
+
+        assertThat(restored.getName()).isEqualTo("anonymous");
+        assertThat(((AuthenticatedUser) restored.getPrincipal()).getId()).isNull();
+    }
+
+    @Test
+    void testResolveAuthenticationReusesVerifiedToken() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Optional<Authentication> first = tokenProvider.resolveAuthentication(token);
+        Optional<Authentication> second = tokenProvider.resolveAuthentication(token);
+
+        assertThat(first).isPresent();
+        assertThat(first.get().getName()).isEqualTo("anonymous");
+        assertThat(second).containsSame(first.get());
+    }
+
+    @Test
+    void testResolveAuthenticationRejectsInvalidToken() {
+        assertThat(tokenProvider.resolveAuthentication(createTokenWithDifferentSignature())).isEmpty();
+        assertThat(tokenProvider.resolveAuthentication("")).isEmpty();
+    }
+
+    @Test
+    void testResolveAuthenticationRejectsExpiredToken() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.resolveAuthentication(token)).isEmpty();
+    }
+
+    @Test
+    void testResolveAuthenticationWithoutCache() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8");
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getAuthenticationCache().setEnabled(false);
+        TokenProvider uncachedTokenProvider = new TokenProvider(
+            jHipsterProperties,
+            applicationProperties,
+            AuthorityRegistryTestUtil.authorityRegistry()
+        );
+        String token = uncachedTokenProvider.createToken(createAuthentication(), false);
+
+        Optional<Authentication> first = uncachedTokenProvider.resolveAuthentication(token);
+        Optional<Authentication> second = uncachedTokenProvider.resolveAuthentication(token);
+
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(second.get()).isNotSameAs(first.get());
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
@@ -0,0 +1,221 @@
+package com.treasure.notes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.treasure.notes.IntegrationTest;
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.domain.OutgoingMail;
+import com.treasure.notes.repository.OutgoingMailRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for {@link MailDispatcher}, sending to a local GreenMail SMTP server.
+ */
+@IntegrationTest
+class MailDispatcherIT {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private OutgoingMailRepository outgoingMailRepository;
+
+    private ApplicationProperties applicationProperties;
+
+    private JavaMailSenderImpl javaMailSender;
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getMail().setBatchSize(2);
+        applicationProperties.getMail().setRetryInitialDelaySeconds(0);
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost(ServerSetupTest.SMTP.getBindAddress());
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+        javaMailSender = spy(sender);
+        meterRegistry = new SimpleMeterRegistry();
+        outgoingMailRepository.deleteAll();
+    }
+
+    @AfterEach
+    void teardown() {
+        outgoingMailRepository.deleteAll();
+    }
+
+    @Test
+    void testEmailsAreSentInBatches() throws Exception {
+        MailDispatcher mailDispatcher = mailDispatcher();
+        for (int i = 0; i < 5; i++) {
+            mailDispatcher.enqueue(mail("user" + i + "@localhost"));
+        }
+
+        mailDispatcher.flush();
+
+        // One connection for each batch of 2 emails
+        verify(javaMailSender, times(3)).send((MimeMessage[]) any());
+        assertThat(greenMail.getReceivedMessages()).hasSize(5);
+        assertThat(greenMail.getReceivedMessages()[0].getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
+        assertThat(meterRegistry.get("mail.messages").tag("result", "sent").counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("mail.send").timer().count()).isEqualTo(3);
+        assertThat(outgoingMailRepository.count()).isZero();
+    }
+
+    @Test
+    void testFailedEmailsAreSentAgain() {
+        MailDispatcher mailDispatcher = mailDispatcher();
+        greenMail.stop();
+        mailDispatcher.enqueue(mail("first@localhost"));
+        mailDispatcher.enqueue(mail("second@localhost"));
+
+        mailDispatcher.flush();
+
+        assertThat(outgoingMailRepository.findAll())
+            .hasSize(2)
+            .allSatisfy(mail -> {
+                assertThat(mail.getAttempts()).isEqualTo(1);
+                assertThat(mail.getLastError()).isNotEmpty();
+            });
+        assertThat(meterRegistry.get("mail.messages").tag("result", "failed").counter().count()).isEqualTo(2);
+
+        greenMail.start();
+        mailDispatcher.retryOutbox();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(2);
+        assertThat(outgoingMailRepository.count()).isZero();
+        assertThat(meterRegistry.get("mail.outbox.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void testEmailsAreNotSentAgainAfterMaxAttempts() {
+        applicationProperties.getMail().setMaxAttempts(1);
+        MailDispatcher mailDispatcher = mailDispatcher();
+        greenMail.stop();
+        mailDispatcher.enqueue(mail("first@localhost"));
+        mailDispatcher.flush();
+
+        greenMail.start();
+        mailDispatcher.retryOutbox();
+
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+        assertThat(outgoingMailRepository.findAll())
+            .singleElement()
+            .satisfies(mail -> {
+                assertThat(mail.getAttempts()).isEqualTo(1);
+                // The content holds the keys of the user
+                assertThat(mail.getContent()).isNull();
+            });
+    }
+
+    @Test
+    void testEmailsGivenUpOnWhenSentAgainAreRedacted() {
+        applicationProperties.getMail().setMaxAttempts(2);
+        MailDispatcher mailDispatcher = mailDispatcher();
+        greenMail.stop();
+        mailDispatcher.enqueue(mail("first@localhost"));
+        mailDispatcher.flush();
+
+        mailDispatcher.retryOutbox();
+
+        assertThat(outgoingMailRepository.findAll())
+            .singleElement()
+            .satisfies(mail -> {
+                assertThat(mail.getAttempts()).isEqualTo(2);
+                assertThat(mail.getContent()).isNull();
+            });
+    }
+
+    @Test
+    void testEmailsGivenUpOnAreDeletedAfterRetention() {
+        applicationProperties.getMail().setMaxAttempts(1);
+        OutgoingMail expired = mail("expired@localhost");
+        expired.setAttempts(1);
+        expired.setNextAttemptDate(Instant.now().minus(Duration.ofDays(8)));
+        OutgoingMail recent = mail("recent@localhost");
+        recent.setAttempts(1);
+        recent.setNextAttemptDate(Instant.now().minus(Duration.ofDays(6)));
+        outgoingMailRepository.saveAll(List.of(expired, recent));
+
+        mailDispatcher().retryOutbox();
+
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+        assertThat(outgoingMailRepository.findAll()).singleElement().extracting(OutgoingMail::getRecipient).isEqualTo("recent@localhost");
+    }
+
+    @Test
+    void testEmailsAreClaimedByOneInstance() {
+        OutgoingMail mail = mail("first@localhost");
+        mail.setNextAttemptDate(Instant.now());
+        Long id = outgoingMailRepository.saveAndFlush(mail).getId();
+        Instant nextAttemptDate = outgoingMailRepository.findById(id).orElseThrow().getNextAttemptDate();
+
+        // Two instances read the email, only the first one claims it
+        assertThat(outgoingMailRepository.claim(id, nextAttemptDate, Instant.now().plusSeconds(300))).isEqualTo(1);
+        assertThat(outgoingMailRepository.claim(id, nextAttemptDate, Instant.now().plusSeconds(300))).isZero();
+
+        // Nor is it sent by another instance while claimed
+        mailDispatcher().retryOutbox();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+        assertThat(outgoingMailRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void testEmailsBeyondQueueCapacityAreKeptInOutbox() {
+        applicationProperties.getMail().setQueueCapacity(1);
+        MailDispatcher mailDispatcher = mailDispatcher();
+        mailDispatcher.enqueue(mail("first@localhost"));
+        mailDispatcher.enqueue(mail("second@localhost"));
+
+        assertThat(outgoingMailRepository.findAll()).singleElement().extracting(OutgoingMail::getRecipient).isEqualTo("second@localhost");
+        assertThat(meterRegistry.get("mail.messages").tag("result", "overflow").counter().count()).isEqualTo(1);
+
+        mailDispatcher.flush();
+        mailDispatcher.retryOutbox();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(2);
+        assertThat(outgoingMailRepository.count()).isZero();
+    }
+
+    @Test
+    void testQueuedEmailsAreKeptInOutboxOnStop() {
+        MailDispatcher mailDispatcher = mailDispatcher();
+        mailDispatcher.enqueue(mail("first@localhost"));
+
+        // Stopped without being started, so that the email is still queued
+        mailDispatcher.stop();
+
+        assertThat(outgoingMailRepository.findAll()).singleElement().extracting(OutgoingMail::getAttempts).isEqualTo(0);
+    }
+
+    private MailDispatcher mailDispatcher() {
+        MailDispatcher mailDispatcher = new MailDispatcher(javaMailSender, jHipsterProperties, applicationProperties, outgoingMailRepository);
+        mailDispatcher.bindTo(meterRegistry);
+        return mailDispatcher;
+    }
+
+    private static OutgoingMail mail(String recipient) {
+        return new OutgoingMail().recipient(recipient).subject("testSubject").content("testContent");
+    }
+}
@@ -0,0 +1,118 @@
+package com.treasure.notes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.treasure.notes.IntegrationTest;
+import com.treasure.notes.config.ApplicationProperties;
+import com.treasure.notes.domain.User;
+import java.util.Locale;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for {@link MailTemplateRenderer}.
+ */
+@IntegrationTest
+class MailTemplateRendererIT {
+
+    private static final String[] TEMPLATES = { "mail/activationEmail", "mail/creationEmail", "mail/passwordResetEmail" };
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+
+    private MailTemplateRenderer mailTemplateRenderer;
+
+    @BeforeEach
+    void setup() {
+        mailTemplateRenderer = new MailTemplateRenderer(templateEngine, jHipsterProperties, new ApplicationProperties());
+    }
+
+    @Test
+    void testRenderIsTheContentOfTheTemplate() {
+        User first = user("john&doe", "activation<key>", "reset\"key'");
+        User second = user("jane.doe@example.com", "activationKey", "resetKey");
+        for (String templateName : TEMPLATES) {
+            assertThat(mailTemplateRenderer.render(templateName, Locale.ENGLISH, first)).isEqualTo(process(templateName, first));
+            assertThat(mailTemplateRenderer.render(templateName, Locale.ENGLISH, second)).isEqualTo(process(templateName, second));
+        }
+    }
+
+    @Test
+    void testTemplateIsRenderedOnceForEachLocale() {
+        JHipsterProperties properties = new JHipsterProperties();
+        properties.getMail().setBaseUrl("http://first.example.com");
+        mailTemplateRenderer = new MailTemplateRenderer(templateEngine, properties, new ApplicationProperties());
+        mailTemplateRenderer.render("mail/activationEmail", Locale.ENGLISH, user("john", "activationKey", "resetKey"));
+
+        properties.getMail().setBaseUrl("http://second.example.com");
+
+        assertThat(mailTemplateRenderer.render("mail/activationEmail", Locale.ENGLISH, user("jane", "otherActivationKey", "resetKey")))
+            .contains("http://first.example.com/account/activate?key=otherActivationKey")
+            .contains("jane");
+        assertThat(mailTemplateRenderer.render("mail/activationEmail", Locale.FRENCH, user("jean", "activationKey", "resetKey")))
+            .contains("http://second.example.com/account/activate?key=activationKey");
+    }
+
+    @Test
+    void testUnsupportedLanguageIsRenderedInTheDefaultLanguage() {
+        JHipsterProperties properties = new JHipsterProperties();
+        properties.getMail().setBaseUrl("http://first.example.com");
+        mailTemplateRenderer = new MailTemplateRenderer(templateEngine, properties, new ApplicationProperties());
+        mailTemplateRenderer.render("mail/activationEmail", Locale.ENGLISH, user("john", "activationKey", "resetKey"));
+
+        properties.getMail().setBaseUrl("http://second.example.com");
+
+        // Rendered once for English, not once for each language key of the users
+        User user = user("jane", "activationKey", "resetKey");
+        assertThat(mailTemplateRenderer.render("mail/activationEmail", Locale.forLanguageTag("xx-YY"), user))
+            .contains("lang=\"en\"")
+            .contains("http://first.example.com/account/activate?key=activationKey");
+        assertThat(mailTemplateRenderer.render("mail/activationEmail", Locale.US, user))
+            .contains("http://first.example.com/account/activate?key=activationKey");
+    }
+
+    @Test
+    void testMissingVariableIsRenderedByTheTemplateEngine() {
+        User user = user("john", null, null);
+
+        assertThat(mailTemplateRenderer.render("mail/activationEmail", Locale.ENGLISH, user))
+            .isEqualTo(process("mail/activationEmail", user));
+    }
+
+    @Test
+    void testTemplateIsRenderedForEachEmailWithoutCache() {
+        JHipsterProperties properties = new JHipsterProperties();
+        properties.getMail().setBaseUrl("http://first.example.com");
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getMail().setTemplateCache(false);
+        mailTemplateRenderer = new MailTemplateRenderer(templateEngine, properties, applicationProperties);
+        mailTemplateRenderer.render("mail/activationEmail", Locale.ENGLISH, user("john", "activationKey", "resetKey"));
+
+        properties.getMail().setBaseUrl("http://second.example.com");
+
+        assertThat(mailTemplateRenderer.render("mail/activationEmail", Locale.ENGLISH, user("jane", "otherActivationKey", "resetKey")))
+            .contains("http://second.example.com/account/activate?key=otherActivationKey");
+    }
+
+    private String process(String templateName, User user) {
+        Context context = new Context(Locale.ENGLISH);
+        context.setVariable("user", user);
+        context.setVariable("baseUrl", jHipsterProperties.getMail().getBaseUrl());
+        return templateEngine.process(templateName, context);
+    }
+
+    private static User user(String login, String activationKey, String resetKey) {
+        User user = new User();
+        user.setLogin(login);
+        user.setActivationKey(activationKey);
+        user.setResetKey(resetKey);
+        return user;
+    }
+}
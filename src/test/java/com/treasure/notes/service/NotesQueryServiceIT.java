@@ -0,0 +1,67 @@
+package com.treasure.notes.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.treasure.notes.IntegrationTest;
+import com.treasure.notes.domain.Notes;
+import com.treasure.notes.domain.User;
+import com.treasure.notes.repository.NotesRepository;
+import com.treasure.notes.repository.RecordingStatementInspector;
+import com.treasure.notes.repository.UserRepository;
+import com.treasure.notes.service.criteria.NotesCriteria;
+import com.treasure.notes.service.dto.NotesDTO;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link NotesQueryService}.
+ */
+@IntegrationTest
+@Transactional
+@WithMockUser
+class NotesQueryServiceIT {
+
+    @Autowired
+    private NotesQueryService notesQueryService;
+
+    @Autowired
+    private NotesRepository notesRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    public void init() {
+        user = userRepository.findOneByLogin("user").orElseThrow();
+        notesRepository.saveAndFlush(new Notes().content("AAAAAAAAAA").user(user));
+        notesRepository.saveAndFlush(new Notes().content("BBBBBBBBBB"));
+        RecordingStatementInspector.clear();
+    }
+
+    @Test
+    void assertThatOwnershipIsFilteredWithoutJoin() {
+        Page<NotesDTO> page = notesQueryService.findByCriteria(new NotesCriteria(), PageRequest.of(0, 20));
+        long count = notesQueryService.countByCriteria(new NotesCriteria());
+
+        assertThat(page.getContent()).extracting(notes -> notes.getUser().getId()).containsOnly(user.getId());
+        assertThat(page.getContent()).extracting(notes -> notes.getUser().getLogin()).containsOnly("user");
+        assertThat(count).isEqualTo(page.getTotalElements());
+
+        List<String> notesQueries = RecordingStatementInspector
+            .getStatements()
+            .stream()
+            .map(String::toLowerCase)
+            .filter(sql -> sql.contains(" from notes "))
+            .collect(Collectors.toList());
+        assertThat(notesQueries).isNotEmpty().allMatch(sql -> sql.contains(".user_id=")).noneMatch(sql -> sql.contains(" join "));
+    }
+}
@@ -8,6 +8,7 @@ import com.treasure.notes.config.Constants;
 import com.treasure.notes.domain.User;
 import com.treasure.notes.repository.UserRepository;
 import com.treasure.notes.service.dto.AdminUserDTO;
+import com.treasure.notes.service.dto.UserDTO;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -18,10 +19,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.security.RandomUtil;
 
@@ -53,6 +59,12 @@ class UserServiceIT {
     @Autowired
     private AuditingHandler auditingHandler;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
     @MockBean
     private DateTimeProvider dateTimeProvider;
 
@@ -60,6 +72,8 @@ class UserServiceIT {
 
     @BeforeEach
     public void init() {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
         user = new User();
         user.setLogin(DEFAULT_LOGIN);
         user.setPassword(RandomStringUtils.random(60));
@@ -182,4 +196,70 @@ class UserServiceIT {
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
         assertThat(maybeDbUser).contains(dbUser);
     }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @WithMockUser(DEFAULT_LOGIN)
+    void assertThatCurrentUserIsCachedByLogin() {
+        // Not transactional: the cache is only written once the transaction reading the user is committed
+        userRepository.saveAndFlush(user);
+        try {
+            Optional<UserDTO> currentUser = userService.getUser();
+
+            assertThat(currentUser).isPresent();
+            assertThat(currentUser.get().getId()).isEqualTo(user.getId());
+            assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(DEFAULT_LOGIN)).isNotNull();
+        } finally {
+            userRepository.delete(user);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @WithMockUser(DEFAULT_LOGIN)
+    void assertThatChangingPasswordEvictsCurrentUser() {
+        user.setPassword(passwordEncoder.encode("current-password"));
+        userRepository.saveAndFlush(user);
+        try {
+            userService.getUser();
+            assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(DEFAULT_LOGIN)).isNotNull();
+
+            userService.changePassword("current-password", "new-password");
+
+            assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(DEFAULT_LOGIN)).isNull();
+        } finally {
+            userRepository.delete(user);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void assertThatUserFoundByMixedCaseEmailIsEvicted() {
+        userRepository.saveAndFlush(user);
+        try {
+            Cache usersByEmailCache = cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE);
+            assertThat(userRepository.findOneWithAuthoritiesByEmailIgnoreCase("JohnDoe@LocalHost")).isPresent();
+            assertThat(usersByEmailCache.get(DEFAULT_EMAIL)).isNotNull();
+
+            userService.requestPasswordReset(DEFAULT_EMAIL);
+
+            assertThat(usersByEmailCache.get(DEFAULT_EMAIL)).isNull();
+        } finally {
+            userRepository.delete(user);
+        }
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(DEFAULT_LOGIN)
+    void assertThatRolledBackChangeDoesNotEvictCurrentUser() {
+        userRepository.saveAndFlush(user);
+        Cache usersByLoginCache = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        usersByLoginCache.putIfAbsent(DEFAULT_LOGIN, user);
+
+        userService.requestPasswordReset(DEFAULT_EMAIL);
+
+        // Evicted when the test transaction is committed, which it never is
+        assertThat(usersByLoginCache.get(DEFAULT_LOGIN)).isNotNull();
+    }
 }
@@ -0,0 +1,23 @@
+package com.treasure.notes.service.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+
+class NotesCursorTest {
+
+    @Test
+    void encodedCursorCanBeDecoded() {
+        NotesCursor cursor = new NotesCursor(new Date(1630678416000L), 42L);
+
+        assertThat(NotesCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> NotesCursor.decode("invalid"));
+        assertThatIllegalArgumentException().isThrownBy(() -> NotesCursor.decode("not base64!"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.treasure.notes.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treasure.notes.service.NotesImportFormat;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link NotesImportReader}.
+ */
+class NotesImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testReadNdjson() throws IOException {
+        List<NotesImportReader.Record> records = readAll("{\"content\":\"one\"}\r\n\n{\"content\":\"two\"}\n[1]\n", NotesImportFormat.NDJSON);
+
+        assertThat(records).extracting(NotesImportReader.Record::getLine).containsExactly(1L, 3L, 4L);
+        assertThat(records.get(0).getNotesDTO().getContent()).isEqualTo("one");
+        assertThat(records.get(1).getNotesDTO().getContent()).isEqualTo("two");
+        assertThat(records.get(2).getError()).startsWith("Invalid JSON");
+    }
+
+    @Test
+    void testReadCsv() throws IOException {
+        String csv = "\uFEFFid,Content\n1,\"a \"\"quoted\"\"\r\nvalue\"\n\n2,plain\n3\n";
+
+        List<NotesImportReader.Record> records = readAll(csv, NotesImportFormat.CSV);
+
+        assertThat(records).extracting(NotesImportReader.Record::getLine).containsExactly(2L, 5L, 6L);
+        assertThat(records.get(0).getNotesDTO().getContent()).isEqualTo("a \"quoted\"\r\nvalue");
+        assertThat(records.get(1).getNotesDTO().getContent()).isEqualTo("plain");
+        assertThat(records.get(2).getNotesDTO().getContent()).isNull();
+    }
+
+    @Test
+    void testReadCsvWithoutContentColumn() throws IOException {
+        List<NotesImportReader.Record> records = readAll("id,text\n1,value\n", NotesImportFormat.CSV);
+
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getLine()).isEqualTo(1L);
+        assertThat(records.get(0).getError()).contains("content");
+    }
+
+    @Test
+    void testReadTooLongRecord() throws IOException {
+        String tooLong = "x".repeat(NotesImportReader.MAX_RECORD_LENGTH + 1);
+
+        List<NotesImportReader.Record> records = readAll("content\n" + tooLong + "\nshort\n", NotesImportFormat.CSV);
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).getError()).isEqualTo("Record is too long");
+        assertThat(records.get(1).getNotesDTO().getContent()).isEqualTo("short");
+    }
+
+    private List<NotesImportReader.Record> readAll(String input, NotesImportFormat format) throws IOException {
+        NotesImportReader reader = new NotesImportReader(new StringReader(input), format, objectMapper);
+        List<NotesImportReader.Record> records = new ArrayList<>();
+        NotesImportReader.Record record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
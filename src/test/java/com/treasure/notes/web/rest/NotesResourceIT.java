@@ -1,27 +1,44 @@
 package com.treasure.notes.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.treasure.notes.IntegrationTest;
+import com.treasure.notes.config.ApplicationProperties;
 import com.treasure.notes.domain.Notes;
 import com.treasure.notes.domain.User;
 import com.treasure.notes.repository.NotesRepository;
+import com.treasure.notes.repository.RecordingStatementInspector;
+import com.treasure.notes.repository.UserRepository;
+import com.treasure.notes.repository.search.NotesSearchRepository;
 import com.treasure.notes.service.criteria.NotesCriteria;
+import com.treasure.notes.service.dto.NotesCursor;
 import com.treasure.notes.service.dto.NotesDTO;
 import com.treasure.notes.service.mapper.NotesMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -48,9 +65,24 @@ class NotesResourceIT {
     @Autowired
     private NotesMapper notesMapper;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotesSearchRepository notesSearchRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Autowired
     private MockMvc restNotesMockMvc;
 
@@ -80,6 +112,7 @@ class NotesResourceIT {
 
     @BeforeEach
     public void initTest() {
+        cacheManager.getCache(NotesRepository.NOTES_COUNT_BY_USER_CACHE).clear();
         notes = createEntity(em);
     }
 
@@ -164,7 +197,47 @@ class NotesResourceIT {
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.id").value(notes.getId().intValue()))
-            .andExpect(jsonPath("$.content").value(DEFAULT_CONTENT));
+            .andExpect(jsonPath("$.content").value(DEFAULT_CONTENT))
+            .andExpect(jsonPath("$.version").value(0))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    @Test
+    @Transactional
+    void getNotesNotModified() throws Exception {
+        // Initialize the database
+        notesRepository.saveAndFlush(notes);
+
+        // Get the notes with its current ETag
+        restNotesMockMvc
+            .perform(get(ENTITY_API_URL_ID, notes.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void getAllNotesNotModified() throws Exception {
+        // Initialize the database with a note of the current user
+        notesRepository.saveAndFlush(notes.user(userRepository.findOneByLogin("user").orElseThrow()));
+
+        String eTag = restNotesMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restNotesMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Once a notes changed, the list is sent again
+        notesRepository.saveAndFlush(notes.content(UPDATED_CONTENT));
+        restNotesMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk());
     }
 
     @Test
@@ -320,6 +393,295 @@ class NotesResourceIT {
             .andExpect(content().string("0"));
     }
 
+    @Test
+    @Transactional
+    void getAllNotesWithCursor() throws Exception {
+        // Initialize the database with notes of the current user
+        User currentUser = userRepository.findOneByLogin("user").orElseThrow();
+        Notes first = notesRepository.saveAndFlush(createEntity(em).user(currentUser));
+        Notes second = notesRepository.saveAndFlush(createEntity(em).user(currentUser));
+        Notes third = notesRepository.saveAndFlush(createEntity(em).user(currentUser));
+
+        // The first page holds the two newest notes, and links to the next one without total count
+        String link = restNotesMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=2"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[0].id").value(third.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(second.getId().intValue()))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+        String nextCursor = NotesCursor.of(notesMapper.toDto(second)).encode();
+        assertThat(link).contains("cursor=" + nextCursor);
+
+        // The last page has no link to a next one
+        restNotesMockMvc
+            .perform(get(ENTITY_API_URL + "?size=2&cursor=" + nextCursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(first.getId().intValue())))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    void getAllNotesWithInvalidCursor() throws Exception {
+        restNotesMockMvc.perform(get(ENTITY_API_URL + "?cursor=invalid")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllNotesWithoutTotalCount() throws Exception {
+        // Initialize the database with notes of the current user
+        User currentUser = userRepository.findOneByLogin("user").orElseThrow();
+        notesRepository.saveAndFlush(createEntity(em).user(currentUser));
+        notesRepository.saveAndFlush(createEntity(em).user(currentUser));
+
+        restNotesMockMvc
+            .perform(get(ENTITY_API_URL + "?totalCount=none&size=1&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")));
+    }
+
+    @Test
+    void getAllNotesWithCachedTotalCount() throws Exception {
+        // Not transactional: the cached total is only evicted once the creation of a note is committed
+        User currentUser = userRepository.findOneByLogin("user").orElseThrow();
+        List<Long> ids = new ArrayList<>();
+        ids.add(notesRepository.saveAndFlush(createEntity(em).user(currentUser)).getId());
+        ids.add(notesRepository.saveAndFlush(createEntity(em).user(currentUser)).getId());
+        try {
+            restNotesMockMvc
+                .perform(get(ENTITY_API_URL + "?totalCount=cached&size=1&sort=id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string("X-Total-Count", "2"));
+            assertThat(cacheManager.getCache(NotesRepository.NOTES_COUNT_BY_USER_CACHE).get(currentUser.getId(), Long.class))
+                .isEqualTo(2L);
+
+            // Creating a note evicts the cached total
+            String created = restNotesMockMvc
+                .perform(
+                    post(ENTITY_API_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(notesMapper.toDto(notes)))
+                )
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+            ids.add(objectMapper.readValue(created, NotesDTO.class).getId());
+            restNotesMockMvc
+                .perform(get(ENTITY_API_URL + "?totalCount=cached&size=1&sort=id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "3"));
+
+            // Deleting a note evicts the cached total of its owner
+            restNotesMockMvc.perform(delete(ENTITY_API_URL_ID, ids.remove(2))).andExpect(status().isNoContent());
+            restNotesMockMvc
+                .perform(get(ENTITY_API_URL + "?totalCount=cached&size=1&sort=id,desc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"));
+        } finally {
+            for (Long id : ids) {
+                restNotesMockMvc.perform(delete(ENTITY_API_URL_ID, id)).andExpect(status().isNoContent());
+            }
+        }
+    }
+
+    @Test
+    @Transactional
+    @WithUserDetails("user")
+    void getAllNotesInOneStatement() throws Exception {
+        // Initialize the database with notes of the current user
+        User currentUser = userRepository.findOneByLogin("user").orElseThrow();
+        notesRepository.saveAndFlush(createEntity(em).user(currentUser));
+        notesRepository.saveAndFlush(createEntity(em).user(currentUser));
+        em.clear();
+
+        RecordingStatementInspector.clear();
+        restNotesMockMvc
+            .perform(get(ENTITY_API_URL + "?totalCount=none&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$.[*].content").value(hasItem(DEFAULT_CONTENT)))
+            .andExpect(jsonPath("$.[*].user.login").value(hasItem("user")));
+
+        // The notes were read in one statement, the login of their owner being the one of the current user
+        List<String> notesStatements = RecordingStatementInspector
+            .getStatements()
+            .stream()
+            .map(String::toLowerCase)
+            .filter(sql -> sql.contains(" from notes "))
+            .collect(Collectors.toList());
+        assertThat(notesStatements).hasSize(1);
+        assertThat(notesStatements.get(0)).doesNotContain("jhi_user");
+        assertThat(RecordingStatementInspector.getStatements()).hasSize(1);
+    }
+
+    @Test
+    @Transactional
+    void getAllNotesWithInvalidTotalCount() throws Exception {
+        restNotesMockMvc.perform(get(ENTITY_API_URL + "?totalCount=invalid")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchNotes() throws Exception {
+        // Not transactional: the notes are indexed once their creation is committed
+        NotesDTO matching = notesMapper.toDto(createEntity(em).content("Remember the zanzibar ferry"));
+        NotesDTO other = notesMapper.toDto(createEntity(em).content("Remember the milk"));
+        List<Long> ids = new ArrayList<>();
+        try {
+            // Create notes through the API, so that they are indexed
+            for (NotesDTO notesDTO : List.of(matching, other)) {
+                String created = restNotesMockMvc
+                    .perform(
+                        post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(notesDTO))
+                    )
+                    .andExpect(status().isCreated())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+                ids.add(objectMapper.readValue(created, NotesDTO.class).getId());
+            }
+
+            restNotesMockMvc
+                .perform(get("/api/_search/notes?query=zanzibar"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$.[0].notes.content").value("Remember the zanzibar ferry"))
+                .andExpect(jsonPath("$.[0].highlight").value("Remember the <em>zanzibar</em> ferry"));
+        } finally {
+            for (Long id : ids) {
+                restNotesMockMvc.perform(delete(ENTITY_API_URL_ID, id)).andExpect(status().isNoContent());
+            }
+        }
+    }
+
+    @Test
+    void searchImportedNotes() throws Exception {
+        // Not transactional: the imported notes are indexed once the import is committed
+        int importFlushSize = applicationProperties.getNotes().getImportFlushSize();
+        applicationProperties.getNotes().setImportFlushSize(1);
+        try {
+            restNotesMockMvc
+                .perform(
+                    post(ENTITY_API_URL + "/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"content\":\"Feed the quokka\"}\n{\"content\":\"Pet the quokka\"}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+
+            restNotesMockMvc
+                .perform(get("/api/_search/notes?query=quokka"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(jsonPath("$.[*].notes.content").value(containsInAnyOrder("Feed the quokka", "Pet the quokka")));
+        } finally {
+            applicationProperties.getNotes().setImportFlushSize(importFlushSize);
+            for (Notes notes : notesRepository.findAll()) {
+                if (notes.getContent().endsWith("the quokka")) {
+                    restNotesMockMvc.perform(delete(ENTITY_API_URL_ID, notes.getId())).andExpect(status().isNoContent());
+                }
+            }
+        }
+    }
+
+    @Test
+    @Transactional
+    void searchNotesCreatedInRolledBackTransaction() throws Exception {
+        // The creation is never committed, so the note is never indexed
+        restNotesMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(notesMapper.toDto(createEntity(em).content("Forgotten wombat"))))
+            )
+            .andExpect(status().isCreated());
+
+        restNotesMockMvc.perform(get("/api/_search/notes?query=wombat")).andExpect(status().isOk()).andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @WithMockUser("admin")
+    void searchNotesOfAnotherUser() throws Exception {
+        // Initialize the database and the index with a note of the "user" account, outside of a transaction
+        User otherUser = userRepository.findOneByLogin("user").orElseThrow();
+        Notes privateNotes = notesRepository.saveAndFlush(createEntity(em).content("Private quokka").user(otherUser));
+        notesSearchRepository.save(privateNotes);
+        try {
+            restNotesMockMvc
+                .perform(get("/api/_search/notes?query=quokka"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+        } finally {
+            notesRepository.delete(privateNotes);
+            notesSearchRepository.deleteById(privateNotes.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportNotes() throws Exception {
+        // Initialize the database with notes of the current user and a note of another user
+        User currentUser = userRepository.findOneByLogin("user").orElseThrow();
+        User otherUser = userRepository.findOneByLogin("admin").orElseThrow();
+        Notes first = notesRepository.saveAndFlush(createEntity(em).content("First line\nSecond line").user(currentUser));
+        Notes second = notesRepository.saveAndFlush(createEntity(em).user(currentUser));
+        notesRepository.saveAndFlush(createEntity(em).user(otherUser));
+
+        String export = restNotesMockMvc
+            .perform(get(ENTITY_API_URL + "/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andReturn()
+            .getResponse()
+            .getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(export).endsWith("\n");
+        List<NotesDTO> exported = readNdjson(export);
+        assertThat(exported).extracting(NotesDTO::getId).containsExactly(first.getId(), second.getId());
+        assertThat(exported.get(0).getContent()).isEqualTo("First line\nSecond line");
+        assertThat(exported.get(0).getUser().getLogin()).isEqualTo("user");
+    }
+
+    @Test
+    @Transactional
+    void exportNotesWithGzip() throws Exception {
+        // Initialize the database with a note of the current user
+        User currentUser = userRepository.findOneByLogin("user").orElseThrow();
+        Notes owned = notesRepository.saveAndFlush(createEntity(em).user(currentUser));
+
+        byte[] export = restNotesMockMvc
+            .perform(get(ENTITY_API_URL + "/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(export))) {
+            List<NotesDTO> exported = readNdjson(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            assertThat(exported).extracting(NotesDTO::getId).containsExactly(owned.getId());
+        }
+    }
+
+    private List<NotesDTO> readNdjson(String ndjson) throws Exception {
+        List<NotesDTO> notesDTOs = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            notesDTOs.add(objectMapper.readValue(line, NotesDTO.class));
+        }
+        return notesDTOs;
+    }
+
     @Test
     @Transactional
     void getNonExistingNotes() throws Exception {
@@ -327,11 +689,172 @@ class NotesResourceIT {
         restNotesMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void saveNotesBatch() throws Exception {
+        // Initialize the database with a note of the current user
+        User currentUser = userRepository.findOneByLogin("user").orElseThrow();
+        Notes existing = notesRepository.saveAndFlush(createEntity(em).user(currentUser));
+        int databaseSizeBeforeCreate = notesRepository.findAll().size();
+
+        List<NotesDTO> batch = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            batch.add(notesMapper.toDto(createEntity(em)));
+        }
+        NotesDTO update = notesMapper.toDto(existing);
+        update.setContent(UPDATED_CONTENT);
+        batch.add(update);
+        batch.add(notesMapper.toDto(createEntity(em).content(null)));
+        NotesDTO missing = notesMapper.toDto(createUpdatedEntity(em));
+        missing.setId(Long.MAX_VALUE);
+        batch.add(missing);
+
+        RecordingStatementInspector.clear();
+        restNotesMockMvc
+            .perform(post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(batch)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(33))
+            .andExpect(jsonPath("$.[0].status").value("CREATED"))
+            .andExpect(jsonPath("$.[0].id").isNumber())
+            .andExpect(jsonPath("$.[30].status").value("UPDATED"))
+            .andExpect(jsonPath("$.[30].id").value(existing.getId().intValue()))
+            .andExpect(jsonPath("$.[31].index").value(31))
+            .andExpect(jsonPath("$.[31].status").value("INVALID"))
+            .andExpect(jsonPath("$.[31].message").value(containsString("content")))
+            .andExpect(jsonPath("$.[32].status").value("NOT_FOUND"));
+
+        // The insert was prepared once and executed in JDBC batches, instead of once per note
+        long insertStatements = RecordingStatementInspector
+            .getStatements()
+            .stream()
+            .filter(sql -> sql.toLowerCase().startsWith("insert into notes"))
+            .count();
+        assertThat(insertStatements).isOne();
+
+        // Validate the Notes in the database
+        assertThat(notesRepository.findAll()).hasSize(databaseSizeBeforeCreate + 30);
+        assertThat(notesRepository.findById(existing.getId()).orElseThrow().getContent()).isEqualTo(UPDATED_CONTENT);
+    }
+
+    @Test
+    @Transactional
+    void importNotes() throws Exception {
+        int databaseSizeBeforeImport = notesRepository.findAll().size();
+        String ndjson =
+            "{\"content\":\"Imported first\"}\n" +
+            "\n" +
+            "{\"content\":\"\"}\n" +
+            "not json\n" +
+            "{\"id\":1,\"version\":3,\"content\":\"Imported second\"}\n" +
+            "{\"content\":\"Imported third\"}";
+
+        // Flush every two notes, so that the import goes through several chunks
+        int importFlushSize = applicationProperties.getNotes().getImportFlushSize();
+        applicationProperties.getNotes().setImportFlushSize(2);
+        try {
+            restNotesMockMvc
+                .perform(post(ENTITY_API_URL + "/import").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors.length()").value(2))
+                .andExpect(jsonPath("$.errors.[0].line").value(3))
+                .andExpect(jsonPath("$.errors.[0].message").value(containsString("content")))
+                .andExpect(jsonPath("$.errors.[1].line").value(4))
+                .andExpect(jsonPath("$.errors.[1].message").value(containsString("Invalid JSON")));
+        } finally {
+            applicationProperties.getNotes().setImportFlushSize(importFlushSize);
+        }
+
+        // Validate the Notes in the database
+        List<Notes> notesList = notesRepository.findAll();
+        assertThat(notesList).hasSize(databaseSizeBeforeImport + 3);
+        List<Notes> importedNotes = notesList
+            .stream()
+            .filter(notes -> notes.getContent().startsWith("Imported"))
+            .collect(Collectors.toList());
+        assertThat(importedNotes).extracting(Notes::getContent).containsOnly("Imported first", "Imported second", "Imported third");
+        assertThat(importedNotes).allSatisfy(notes -> assertThat(notes.getUser().getLogin()).isEqualTo("user"));
+        assertThat(importedNotes).extracting(Notes::getId).doesNotContain(1L);
+    }
+
+    @Test
+    @Transactional
+    void importNotesFromCsv() throws Exception {
+        String csv = "content,source\r\n\"Hello, \"\"world\"\"\non two lines\",mail\r\n,empty\r\nPlain,paper\r\n";
+
+        restNotesMockMvc
+            .perform(post(ENTITY_API_URL + "/import").contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(2))
+            .andExpect(jsonPath("$.errors.length()").value(1))
+            .andExpect(jsonPath("$.errors.[0].line").value(4));
+
+        assertThat(notesRepository.findAll())
+            .extracting(Notes::getContent)
+            .contains("Hello, \"world\"\non two lines", "Plain");
+    }
+
+    @Test
+    @Transactional
+    void importNotesReportsTheFirstErrors() throws Exception {
+        String ndjson = "{\"content\":\"\"}\nnot json\n{\"content\":\"\"}\n{\"content\":\"Imported\"}";
+
+        int importMaxErrors = applicationProperties.getNotes().getImportMaxErrors();
+        applicationProperties.getNotes().setImportMaxErrors(1);
+        try {
+            restNotesMockMvc
+                .perform(post(ENTITY_API_URL + "/import").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.errors.length()").value(1))
+                .andExpect(jsonPath("$.errors.[0].line").value(1));
+        } finally {
+            applicationProperties.getNotes().setImportMaxErrors(importMaxErrors);
+        }
+    }
+
+    @Test
+    @Transactional
+    void importNotesWithUnsupportedContentType() throws Exception {
+        restNotesMockMvc
+            .perform(post(ENTITY_API_URL + "/import").contentType(MediaType.APPLICATION_XML).content("<notes/>"))
+            .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @Transactional
+    void deleteNotesBatch() throws Exception {
+        // Initialize the database with a note of the current user and a note of another user
+        User currentUser = userRepository.findOneByLogin("user").orElseThrow();
+        User otherUser = userRepository.findOneByLogin("admin").orElseThrow();
+        Notes owned = notesRepository.saveAndFlush(createEntity(em).user(currentUser));
+        Notes notOwned = notesRepository.saveAndFlush(createEntity(em).user(otherUser));
+
+        restNotesMockMvc
+            .perform(delete(ENTITY_API_URL + "/batch?ids=" + owned.getId() + "," + notOwned.getId()).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].status").value("DELETED"))
+            .andExpect(jsonPath("$.[1].status").value("NOT_FOUND"));
+
+        // Validate the database only contains the note of the other user
+        assertThat(notesRepository.findById(owned.getId())).isEmpty();
+        assertThat(notesRepository.findById(notOwned.getId())).isPresent();
+    }
+
+    @Test
+    @Transactional
+    void deleteNotesBatchTooLarge() throws Exception {
+        String ids = LongStream.rangeClosed(1, 501).mapToObj(Long::toString).collect(Collectors.joining(","));
+        restNotesMockMvc.perform(delete(ENTITY_API_URL + "/batch?ids=" + ids)).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void putNewNotes() throws Exception {
         // Initialize the database
-        notesRepository.saveAndFlush(notes);
+        notesRepository.saveAndFlush(notes.user(userRepository.findOneByLogin("user").orElseThrow()));
 
         int databaseSizeBeforeUpdate = notesRepository.findAll().size();
 
@@ -342,6 +865,7 @@ class NotesResourceIT {
         updatedNotes.content(UPDATED_CONTENT);
         NotesDTO notesDTO = notesMapper.toDto(updatedNotes);
 
+        RecordingStatementInspector.clear();
         restNotesMockMvc
             .perform(
                 put(ENTITY_API_URL_ID, notesDTO.getId())
@@ -350,6 +874,11 @@ class NotesResourceIT {
             )
             .andExpect(status().isOk());
 
+        // The notes was read once, together with its owner
+        assertThat(RecordingStatementInspector.getStatements())
+            .filteredOn(sql -> sql.toLowerCase().startsWith("select") && sql.toLowerCase().contains(" from notes "))
+            .hasSize(1);
+
         // Validate the Notes in the database
         List<Notes> notesList = notesRepository.findAll();
         assertThat(notesList).hasSize(databaseSizeBeforeUpdate);
@@ -357,6 +886,64 @@ class NotesResourceIT {
         assertThat(testNotes.getContent()).isEqualTo(UPDATED_CONTENT);
     }
 
+    @Test
+    @Transactional
+    void putNotesWithIfMatch() throws Exception {
+        // Initialize the database
+        notesRepository.saveAndFlush(notes.user(userRepository.findOneByLogin("user").orElseThrow()));
+
+        NotesDTO notesDTO = notesMapper.toDto(createUpdatedEntity(em));
+        notesDTO.setId(notes.getId());
+
+        restNotesMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, notesDTO.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(notesDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").value(1))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        // A second update based on the first version is rejected
+        notesDTO.setContent(DEFAULT_CONTENT);
+        restNotesMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, notesDTO.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(notesDTO))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        // Validate the Notes in the database
+        assertThat(notesRepository.findById(notes.getId()).orElseThrow().getContent()).isEqualTo(UPDATED_CONTENT);
+    }
+
+    @Test
+    @Transactional
+    void patchNotesWithStaleIfMatch() throws Exception {
+        // Initialize the database
+        notesRepository.saveAndFlush(notes.user(userRepository.findOneByLogin("user").orElseThrow()));
+
+        NotesDTO notesDTO = new NotesDTO();
+        notesDTO.setId(notes.getId());
+        notesDTO.setContent(UPDATED_CONTENT);
+
+        restNotesMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, notesDTO.getId())
+                    .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(notesDTO))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        // Validate the Notes in the database
+        assertThat(notesRepository.findById(notes.getId()).orElseThrow().getContent()).isEqualTo(DEFAULT_CONTENT);
+    }
+
     @Test
     @Transactional
     void putNonExistingNotes() throws Exception {
@@ -366,20 +953,42 @@ class NotesResourceIT {
         // Create the Notes
         NotesDTO notesDTO = notesMapper.toDto(notes);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the current user has no notes with this ID, it will return 404
         restNotesMockMvc
             .perform(
                 put(ENTITY_API_URL_ID, notesDTO.getId())
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(TestUtil.convertObjectToJsonBytes(notesDTO))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Notes in the database
         List<Notes> notesList = notesRepository.findAll();
         assertThat(notesList).hasSize(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    @Transactional
+    void putNotesOfAnotherUser() throws Exception {
+        // Initialize the database with a note of another user
+        notesRepository.saveAndFlush(notes.user(userRepository.findOneByLogin("admin").orElseThrow()));
+
+        NotesDTO notesDTO = notesMapper.toDto(createUpdatedEntity(em));
+        notesDTO.setId(notes.getId());
+
+        restNotesMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, notesDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(notesDTO))
+            )
+            .andExpect(status().isNotFound());
+
+        // Validate the Notes in the database is unchanged
+        em.detach(notes);
+        assertThat(notesRepository.findById(notes.getId()).orElseThrow().getContent()).isEqualTo(DEFAULT_CONTENT);
+    }
+
     @Test
     @Transactional
     void putWithIdMismatchNotes() throws Exception {
@@ -426,7 +1035,7 @@ class NotesResourceIT {
     @Transactional
     void partialUpdateNotesWithPatch() throws Exception {
         // Initialize the database
-        notesRepository.saveAndFlush(notes);
+        notesRepository.saveAndFlush(notes.user(userRepository.findOneByLogin("user").orElseThrow()));
 
         int databaseSizeBeforeUpdate = notesRepository.findAll().size();
 
@@ -455,7 +1064,7 @@ class NotesResourceIT {
     @Transactional
     void fullUpdateNotesWithPatch() throws Exception {
         // Initialize the database
-        notesRepository.saveAndFlush(notes);
+        notesRepository.saveAndFlush(notes.user(userRepository.findOneByLogin("user").orElseThrow()));
 
         int databaseSizeBeforeUpdate = notesRepository.findAll().size();
 
@@ -489,14 +1098,14 @@ class NotesResourceIT {
         // Create the Notes
         NotesDTO notesDTO = notesMapper.toDto(notes);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the current user has no notes with this ID, it will return 404
         restNotesMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, notesDTO.getId())
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(notesDTO))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Notes in the database
         List<Notes> notesList = notesRepository.findAll();